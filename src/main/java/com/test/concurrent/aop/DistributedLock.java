@@ -10,9 +10,17 @@ import java.util.concurrent.TimeUnit;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface DistributedLock {
     /**
-     * Lock 이름
+     * Lock 이름 (key, keys 중 하나만 지정한다)
      */
-    String key();
+    String key() default "";
+
+    /**
+     * 여러 Lock 이름으로 평가되는 SpEL 표현식 (컬렉션 또는 배열) <br/>
+     * 중복을 제거하고 정렬된 순서로 {@link org.redisson.RedissonMultiLock}을 통해 모두 획득하며, 함께 해제한다.
+     * 획득 순서가 항상 같으므로 같은 쿠폰들을 다른 순서로 요청해도 교착 상태가 발생하지 않는다. <br/>
+     * localFirst, {@link LockStrategy#FENCED}와 함께 사용할 수 없다.
+     */
+    String keys() default "";
 
     /**
      * Lock 유지 시간 (초)
@@ -21,7 +29,8 @@ public @interface DistributedLock {
 
     /**
      * Lock 유지 시간 (DEFAULT: 10초)
-     * LOCK 획득을 위해 waitTime만큼 대기한다.
+     * LOCK 획득을 위해 waitTime만큼 대기한다. <br/>
+     * 획득하지 못하면 boolean, void 메서드는 false를 반환하고, 그 외 반환 타입은 {@link IllegalStateException}을 던진다.
      */
     long waitTime() default 10L;
 
@@ -37,5 +46,36 @@ public @interface DistributedLock {
      * - false : Propagation.MANDATORY 전파 방식을 사용하여 동일한 트랜잭션에서 Lock을 획득한다.
      */
     boolean needNewTransaction() default true;
+
+    /**
+     * Redis 락 이전에 JVM 내부 락을 먼저 획득할지 여부 (DEFAULT: false) <br/>
+     * - true : 같은 JVM의 대기자는 key별 로컬 락에서 대기하고, 로컬 락을 얻은 스레드만 Redis 락을 시도한다.
+     *          Redis 락을 동시에 기다리는 스레드(pub/sub 구독)가 스레드 수가 아닌 노드 수에 비례하게 된다.
+     *          Redis 락은 보유자마다 획득하고 해제하므로, 락을 넘겨받을 때마다 Redis 왕복은 그대로 발생한다. <br/>
+     * - false : 모든 스레드가 각자 Redis 락을 시도한다.
+     */
+    boolean localFirst() default false;
+
+    /**
+     * 사용할 Redisson 락 종류 (DEFAULT: REENTRANT) <br/>
+     * - READ / WRITE : 같은 key의 읽기-쓰기 락을 나눠 사용한다. 조회는 READ로 공유하고, 차감은 WRITE로 배타적으로 처리한다.
+     */
+    LockStrategy strategy() default LockStrategy.REENTRANT;
+
+    /**
+     * 락 임대 방식 (DEFAULT: FIXED) <br/>
+     * - FIXED : leaseTime이 지나면 락을 해제한다. <br/>
+     * - WATCHDOG : 락을 보유한 동안 짧은 TTL을 계속 연장한다. leaseTime과 트랜잭션 타임아웃은 적용하지 않는다.
+     */
+    LeaseMode leaseMode() default LeaseMode.FIXED;
+
+    /**
+     * 같은 key의 동시 호출을 모아서 실행할지 여부 (DEFAULT: false) <br/>
+     * - true : 락을 획득한 스레드가 대기 중인 호출을 한 번의 락 보유, 하나의 트랜잭션 안에서 모두 실행하고 각 호출에 결과를 돌려준다.
+     *          락 전달과 커밋 횟수가 묶음 크기만큼 줄어든다. 새로운 트랜잭션(needNewTransaction = true)에서만 사용할 수 있다.
+     *          호출은 combiner 스레드에서 실행되므로 호출 스레드의 스레드 로컬 값(MDC 등)을 볼 수 없고, {@link LockStrategy#FENCED}와 함께 사용할 수 없다. <br/>
+     * - false : 호출마다 락을 획득하고 트랜잭션을 커밋한다.
+     */
+    boolean combining() default false;
 }
 
@@ -1,21 +1,31 @@
 package com.test.concurrent.aop;
 
-import com.test.concurrent.common.CustomSpringELParser;
+import com.test.concurrent.common.KeyedLockManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.redisson.api.RFencedLock;
 import org.redisson.api.RLock;
 import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.DefaultTransactionDefinition;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * {@link DistributedLock} 어노테이션을 사용한 메소드에 대한 분산 락 처리를 위한 AOP
@@ -26,50 +36,113 @@ import java.lang.reflect.Method;
 @RequiredArgsConstructor
 public class DistributedLockAspect {
     private static final String REDISSON_LOCK_PREFIX = "LOCK:";
+    private static final Object LOCAL_LOCK_TIMEOUT = new Object();
+    private static final int MAX_COMBINED_CALLS = 128;
 
     private final RedissonClient redissonClient;
     private final PlatformTransactionManager transactionManager;
 
+    /**
+     * 메서드별 어노테이션, 컴파일된 key 표현식, 트랜잭션 정의 캐시
+     */
+    private final Map<Method, DistributedLockMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    /**
+     * {@link DistributedLock#localFirst()}에서 사용하는 key별 JVM 내부 락. 서로 다른 key는 서로 기다리지 않는다.
+     */
+    private final KeyedLockManager<String> localLocks = new KeyedLockManager<>(KeyedLockManager.Mode.PER_KEY, 0, false);
+
+    /**
+     * {@link DistributedLock#combining()}에서 메서드와 key별로 대기 중인 호출. 같은 key라도 메서드가 다르면 다른 묶음이다.
+     */
+    private final Map<CombiningKey, CombiningSlot> combiningSlots = new ConcurrentHashMap<>();
+
     @Around("@annotation(com.test.concurrent.aop.DistributedLock)")
     public Object lock(final ProceedingJoinPoint joinPoint) throws Throwable {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         Method method = signature.getMethod();
-        DistributedLock distributedLock = method.getAnnotation(DistributedLock.class);
+        DistributedLockMetadata metadata = metadataCache.computeIfAbsent(method, m -> DistributedLockMetadata.of(m, signature.getParameterNames()));
+        DistributedLock distributedLock = metadata.getDistributedLock();
+
+        String key;
+        RLock rLock;
+        if (metadata.isMultiKey()) {
+            List<String> keys = metadata.resolveKeys(joinPoint.getArgs());
+            key = REDISSON_LOCK_PREFIX + keys;
+            rLock = getMultiLock(distributedLock.strategy(), keys);
+        } else {
+            key = REDISSON_LOCK_PREFIX + metadata.resolveKey(joinPoint.getArgs());
+            rLock = distributedLock.strategy().getLock(redissonClient, key);
+        }
 
-        String key = REDISSON_LOCK_PREFIX + CustomSpringELParser.getDynamicValue(signature.getParameterNames(), joinPoint.getArgs(), distributedLock.key());
-        RLock rLock = redissonClient.getLock(key);
+        if (distributedLock.combining()) {
+            return combine(metadata, method, key, rLock, joinPoint);
+        }
+        return executeWithLock(metadata, method, key, rLock, joinPoint::proceed);
+    }
 
+    /**
+     * 락을 획득하고 트랜잭션 안에서 body를 실행한 뒤, 커밋 후 락을 해제한다.
+     *
+     * @return : body의 실행 결과. 락 획득에 실패하면 {@link #lockFailure}의 결과
+     */
+    private Object executeWithLock(DistributedLockMetadata metadata, Method method, String key, RLock rLock, LockedCall body) throws Throwable {
+        DistributedLock distributedLock = metadata.getDistributedLock();
+        long waitNanos = distributedLock.timeUnit().toNanos(distributedLock.waitTime());
+        if (!distributedLock.localFirst()) {
+            return executeWithRedisLock(metadata, method, key, rLock, waitNanos, body);
+        }
+
+        // 같은 JVM의 대기자는 key별 로컬 락에서 먼저 경쟁하고, 로컬 락을 얻은 스레드만 남은 대기 시간으로 Redis 락을 시도한다.
+        // Redis 락은 로컬 락을 해제하기 전에 해제하므로, 다음 로컬 대기자도 Redis 락을 새로 획득한다.
+        long start = System.nanoTime();
+        Object result = localLocks.tryExecuteWithLock(key, waitNanos, TimeUnit.NANOSECONDS, LOCAL_LOCK_TIMEOUT,
+                () -> executeWithRedisLock(metadata, method, key, rLock, Math.max(0L, waitNanos - (System.nanoTime() - start)), body));
+        if (result == LOCAL_LOCK_TIMEOUT) {
+            return lockFailure(metadata, "Local Lock 획득 실패", method, key);
+        }
+        return result;
+    }
+
+    private Object executeWithRedisLock(DistributedLockMetadata metadata, Method method, String key, RLock rLock, long waitNanos, LockedCall body) throws Throwable {
+        DistributedLock distributedLock = metadata.getDistributedLock();
         TransactionStatus status = null;
+        boolean locked = false;
+        boolean fenced = false;
+        Long outerToken = null;
 
         try {
-            boolean available = rLock.tryLock(distributedLock.waitTime(), distributedLock.leaseTime(), distributedLock.timeUnit());
-            if (!available) {
-                log.warn("Lock 획득 실패: {} {}", method.getName(), key);
-                return false;
-            }
-            log.info("{} : Redisson Lock 진입 : {} {}", Thread.currentThread().getId(), method.getName(), key);
+            // 워치독 모드는 leaseTime = -1로 획득해 Redisson이 TTL을 주기적으로 연장하게 한다.
+            long leaseNanos = distributedLock.leaseMode() == LeaseMode.WATCHDOG ? -1L : distributedLock.timeUnit().toNanos(distributedLock.leaseTime());
 
-            // 트랜잭션 정의 설정
-            var def = new DefaultTransactionDefinition();
-            if (distributedLock.needNewTransaction()) {
-                def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            boolean available;
+            if (rLock instanceof RFencedLock fencedLock) {
+                Long token = fencedLock.tryLockAndGetToken(waitNanos, leaseNanos, TimeUnit.NANOSECONDS);
+                available = token != null;
+                if (available) {
+                    outerToken = FencingTokenHolder.replace(token);
+                    fenced = true;
+                }
             } else {
-                def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+                available = rLock.tryLock(waitNanos, leaseNanos, TimeUnit.NANOSECONDS);
+            }
+            if (!available) {
+                return lockFailure(metadata, "Lock 획득 실패", method, key);
             }
+            locked = true;
+            log.info("{} : Redisson Lock 진입 : {} {}", Thread.currentThread().getId(), method.getName(), key);
 
-            // 트랜잭션 타임아웃을 락의 유효 시간(leaseTime)과 동일하게 설정
-            var timeoutSeconds = (int) distributedLock.timeUnit().toSeconds(distributedLock.leaseTime());
-            if (timeoutSeconds > 0) {
-                // 트랜잭션 타임아웃은 락 유효 시간보다 약간 짧게 설정 (롤백 여유 시간 확보)
-                def.setTimeout(Math.max(1, timeoutSeconds - 1));
+            // 트랜잭션 정의 (propagation, timeout)는 메서드별로 미리 계산해둔다.
+            TransactionDefinition def = metadata.getTransactionDefinition();
+            if (!metadata.isMultiKey()) { // 멀티 락은 TTL을 조회할 수 없다.
+                log.info("Distributed Lock TTL : {} ms, Transaction Timeout: {} sec", rLock.remainTimeToLive(), def.getTimeout());
             }
-            log.info("Distributed Lock TTL : {} ms, Transaction Timeout: {} sec", rLock.remainTimeToLive(), def.getTimeout());
 
             // 트랜잭션 시작
             status = transactionManager.getTransaction(def);
 
             // 메서드 실행
-            Object result = joinPoint.proceed();
+            Object result = body.call();
 
             // 트랜잭션 커밋
             transactionManager.commit(status);
@@ -91,8 +164,12 @@ public class DistributedLockAspect {
             log.error("{} : Error during execution with lock: {} {}", Thread.currentThread().getId(), method.getName(), key);
             throw e;
         } finally {
+            if (fenced) {
+                FencingTokenHolder.restore(outerToken); // 중첩 호출이면 바깥 호출의 토큰을 되돌린다.
+            }
             try {
-                if (rLock.isHeldByCurrentThread()) { // 현재 스레드가 락을 보유하고 있는 경우에만 해제
+                // 현재 스레드가 락을 보유하고 있는 경우에만 해제 (멀티 락은 보유 여부를 조회할 수 없어 획득 여부로 판단한다)
+                if (metadata.isMultiKey() ? locked : rLock.isHeldByCurrentThread()) {
                     rLock.unlock();
                     log.info("{} : Redisson Lock 해제 : {} {}", Thread.currentThread().getId(), method.getName(), key);;
                 } else {
@@ -103,4 +180,168 @@ public class DistributedLockAspect {
             }
         }
     }
+
+    /**
+     * 같은 메서드, 같은 key의 동시 호출을 모아, 락을 획득한 스레드(combiner)가 한 번의 락 보유와 하나의 트랜잭션 안에서 모두 실행한다.
+     * <p>
+     * - 호출은 key별 대기열에 자신을 등록한 뒤 combiner 락을 기다린다. combiner 락을 얻었을 때 이미 다른 combiner가 처리했다면 결과만 가져간다. <br/>
+     * - combiner는 대기열에서 최대 {@link #MAX_COMBINED_CALLS}개를 꺼내 순서대로 실행하고, 커밋 이후에 각 호출에 결과를 전달한다. <br/>
+     * - 한 호출이라도 예외를 던지면 그 호출의 일부 쓰기가 커밋되지 않도록 묶음 트랜잭션 전체를 롤백하고,
+     *   묶음의 호출을 하나씩 각자의 락 보유와 트랜잭션으로 다시 실행한다. 예외는 해당 호출에만 전달된다.
+     */
+    private Object combine(DistributedLockMetadata metadata, Method method, String key, RLock rLock, ProceedingJoinPoint joinPoint) throws Throwable {
+        DistributedLock distributedLock = metadata.getDistributedLock();
+        CombiningKey slotKey = new CombiningKey(method, key);
+        CombiningSlot slot = combiningSlots.computeIfAbsent(slotKey, k -> new CombiningSlot());
+        CombinedCall call = new CombinedCall(joinPoint);
+        slot.pending.add(call);
+
+        boolean combiner;
+        try {
+            combiner = slot.combinerLock.tryLock(distributedLock.waitTime(), distributedLock.timeUnit());
+        } catch (InterruptedException e) {
+            slot.pending.remove(call);
+            throw e;
+        }
+
+        if (!combiner) {
+            if (slot.pending.remove(call)) {
+                return lockFailure(metadata, "Combiner Lock 획득 실패", method, key);
+            }
+            return call.await(); // 이미 다른 combiner가 꺼내 실행 중이다.
+        }
+
+        try {
+            if (!call.result.isDone()) {
+                List<CombinedCall> calls = drain(slot.pending);
+                log.info("{} : Combiner 실행 : {} {} ({}건)", Thread.currentThread().getId(), method.getName(), key, calls.size());
+                runCombined(metadata, method, key, rLock, calls);
+            }
+        } finally {
+            if (slot.pending.isEmpty()) {
+                combiningSlots.remove(slotKey, slot);
+            }
+            slot.combinerLock.unlock();
+        }
+        return call.await();
+    }
+
+    private void runCombined(DistributedLockMetadata metadata, Method method, String key, RLock rLock, List<CombinedCall> calls) {
+        Object locked;
+        try {
+            locked = executeWithLock(metadata, method, key, rLock, () -> {
+                for (CombinedCall call : calls) {
+                    try {
+                        call.value = call.joinPoint.proceed();
+                    } catch (Throwable e) {
+                        throw new CombinedCallFailure(e); // 묶음 트랜잭션을 롤백한다.
+                    }
+                }
+                return true;
+            });
+        } catch (CombinedCallFailure e) {
+            log.warn("{} : Combined 호출 실패, 개별 실행으로 재시도 : {} {} ({}건)", Thread.currentThread().getId(), method.getName(), key, calls.size());
+            runEach(metadata, method, key, rLock, calls);
+            return;
+        } catch (Throwable e) {
+            // 락 획득 중 인터럽트 혹은 커밋 실패: 결과가 반영되지 않았으므로 모든 호출을 실패시킨다.
+            calls.forEach(call -> call.result.completeExceptionally(e));
+            return;
+        }
+
+        for (CombinedCall call : calls) {
+            call.result.complete(Boolean.FALSE.equals(locked) ? false : call.value);
+        }
+    }
+
+    /**
+     * 묶음이 롤백된 뒤, 호출마다 락을 다시 획득해 각자의 트랜잭션에서 실행한다.
+     */
+    private void runEach(DistributedLockMetadata metadata, Method method, String key, RLock rLock, List<CombinedCall> calls) {
+        for (CombinedCall call : calls) {
+            try {
+                call.result.complete(executeWithLock(metadata, method, key, rLock, call.joinPoint::proceed));
+            } catch (Throwable e) {
+                call.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 락 획득 실패를 호출자에게 알린다. <br/>
+     * boolean(혹은 void) 메서드는 false를 반환하고, 그 외 반환 타입은 false를 반환 값으로 변환할 수 없으므로 {@link IllegalStateException}을 던진다.
+     */
+    private Object lockFailure(DistributedLockMetadata metadata, String reason, Method method, String key) {
+        log.warn("{}: {} {}", reason, method.getName(), key);
+        if (metadata.isLockFailureAsFalse()) {
+            return false;
+        }
+        throw new IllegalStateException("락을 획득하지 못했습니다: " + key);
+    }
+
+    private static List<CombinedCall> drain(Queue<CombinedCall> pending) {
+        List<CombinedCall> calls = new ArrayList<>();
+        CombinedCall call;
+        while (calls.size() < MAX_COMBINED_CALLS && (call = pending.poll()) != null) {
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    /**
+     * 정렬된 key 목록의 락을 하나의 {@link org.redisson.RedissonMultiLock}으로 묶는다. 멀티 락은 목록 순서대로 획득한다.
+     */
+    private RLock getMultiLock(LockStrategy strategy, List<String> keys) {
+        RLock[] locks = new RLock[keys.size()];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = strategy.getLock(redissonClient, REDISSON_LOCK_PREFIX + keys.get(i));
+        }
+        return redissonClient.getMultiLock(locks);
+    }
+
+    @FunctionalInterface
+    private interface LockedCall {
+        Object call() throws Throwable;
+    }
+
+    private record CombiningKey(Method method, String key) {
+    }
+
+    /**
+     * combining 모드에서 메서드와 key별로 공유하는 대기열과 combiner 락
+     */
+    private static class CombiningSlot {
+        private final Queue<CombinedCall> pending = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock combinerLock = new ReentrantLock();
+    }
+
+    /**
+     * combiner가 대신 실행할 호출. value는 combiner 스레드만 쓰고, 호출 스레드는 result로 결과를 받는다.
+     */
+    private static class CombinedCall {
+        private final ProceedingJoinPoint joinPoint;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private Object value;
+
+        private CombinedCall(ProceedingJoinPoint joinPoint) {
+            this.joinPoint = joinPoint;
+        }
+
+        private Object await() throws Throwable {
+            try {
+                return result.get();
+            } catch (ExecutionException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * 묶음 실행 중 한 호출이 실패했음을 알려 묶음 트랜잭션을 롤백시키는 예외
+     */
+    private static class CombinedCallFailure extends RuntimeException {
+        private CombinedCallFailure(Throwable cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package com.test.concurrent.aop;
+
+import com.test.concurrent.common.CustomSpringELParser;
+import lombok.Getter;
+import org.springframework.expression.Expression;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * {@link DistributedLock} 메서드마다 한 번만 계산하면 되는 정보 <br/>
+ * 어노테이션, 파라미터 이름, 컴파일된 key SpEL 표현식, 트랜잭션 정의를 보관하며,
+ * 호출 시에는 인자를 바인딩해 key를 평가하는 작업만 수행한다.
+ */
+@Getter
+public class DistributedLockMetadata {
+    private final DistributedLock distributedLock;
+    private final String[] parameterNames;
+    private final Expression keyExpression;
+    private final boolean multiKey;
+    private final TransactionDefinition transactionDefinition;
+    /**
+     * 락 획득 실패를 false 반환으로 알릴 수 있는지 여부 (boolean, Boolean, void 메서드)
+     */
+    private final boolean lockFailureAsFalse;
+
+    private DistributedLockMetadata(DistributedLock distributedLock, String[] parameterNames, Class<?> returnType) {
+        this.distributedLock = distributedLock;
+        this.parameterNames = parameterNames;
+        this.lockFailureAsFalse = returnType == boolean.class || returnType == Boolean.class || returnType == void.class;
+        this.multiKey = !distributedLock.keys().isEmpty();
+        this.keyExpression = CustomSpringELParser.parseExpression(multiKey ? distributedLock.keys() : distributedLock.key());
+        this.transactionDefinition = createTransactionDefinition(distributedLock);
+    }
+
+    public static DistributedLockMetadata of(Method method, String[] parameterNames) {
+        DistributedLock distributedLock = method.getAnnotation(DistributedLock.class);
+        if (distributedLock == null) {
+            throw new IllegalArgumentException("@DistributedLock이 선언되지 않은 메서드입니다: " + method);
+        }
+        validate(method, distributedLock);
+        return new DistributedLockMetadata(distributedLock, parameterNames, method.getReturnType());
+    }
+
+    /**
+     * 메서드 인자로 key 표현식을 평가한다.
+     */
+    public Object resolveKey(Object[] args) {
+        return CustomSpringELParser.getDynamicValue(parameterNames, args, keyExpression);
+    }
+
+    /**
+     * 메서드 인자로 keys 표현식을 평가해, 중복을 제거하고 정렬한 key 목록을 반환한다.
+     */
+    public List<String> resolveKeys(Object[] args) {
+        Object value = resolveKey(args);
+
+        Collection<?> values;
+        if (value instanceof Collection<?> collection) {
+            values = collection;
+        } else if (value instanceof Object[] array) {
+            values = Arrays.asList(array);
+        } else {
+            throw new IllegalArgumentException("keys 표현식은 컬렉션 또는 배열이어야 합니다: " + distributedLock.keys());
+        }
+
+        TreeSet<String> keys = new TreeSet<>();
+        for (Object key : values) {
+            keys.add(String.valueOf(key));
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("keys 표현식이 빈 값으로 평가되었습니다: " + distributedLock.keys());
+        }
+        return List.copyOf(keys);
+    }
+
+    private static void validate(Method method, DistributedLock distributedLock) {
+        boolean hasKey = !distributedLock.key().isEmpty();
+        boolean hasKeys = !distributedLock.keys().isEmpty();
+        if (hasKey == hasKeys) {
+            throw new IllegalArgumentException("key와 keys 중 하나만 지정해야 합니다: " + method);
+        }
+        if (hasKeys && (distributedLock.localFirst() || distributedLock.strategy() == LockStrategy.FENCED)) {
+            throw new IllegalArgumentException("keys는 localFirst, FENCED 전략과 함께 사용할 수 없습니다: " + method);
+        }
+        if (distributedLock.combining() && (!distributedLock.needNewTransaction() || distributedLock.localFirst())) {
+            throw new IllegalArgumentException("combining은 새로운 트랜잭션에서만 사용할 수 있으며, localFirst와 함께 사용할 수 없습니다: " + method);
+        }
+        // 모인 호출은 combiner 스레드에서 실행되므로, 펜싱 토큰 같은 스레드 로컬 값이 호출한 스레드의 것이 아니다.
+        if (distributedLock.combining() && distributedLock.strategy() == LockStrategy.FENCED) {
+            throw new IllegalArgumentException("combining은 FENCED 전략과 함께 사용할 수 없습니다: " + method);
+        }
+    }
+
+    private static TransactionDefinition createTransactionDefinition(DistributedLock distributedLock) {
+        var def = new DefaultTransactionDefinition();
+        if (distributedLock.needNewTransaction()) {
+            def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        } else {
+            def.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        }
+
+        // 워치독이 락을 연장하는 동안에는 락 만료를 기준으로 트랜잭션을 끊을 필요가 없다.
+        if (distributedLock.leaseMode() == LeaseMode.WATCHDOG) {
+            return def;
+        }
+
+        // 트랜잭션 타임아웃을 락의 유효 시간(leaseTime)과 동일하게 설정
+        var timeoutSeconds = (int) distributedLock.timeUnit().toSeconds(distributedLock.leaseTime());
+        if (timeoutSeconds > 0) {
+            // 트랜잭션 타임아웃은 락 유효 시간보다 약간 짧게 설정 (롤백 여유 시간 확보)
+            def.setTimeout(Math.max(1, timeoutSeconds - 1));
+        }
+        return def;
+    }
+}
@@ -0,0 +1,46 @@
+package com.test.concurrent.aop;
+
+/**
+ * {@link LockStrategy#FENCED} 락을 획득한 메서드가 자신의 펜싱 토큰을 조회하기 위한 홀더 <br/>
+ * 토큰은 락을 획득할 때마다 단조 증가하므로, 저장소는 마지막으로 기록된 토큰보다 작은 토큰의 쓰기를 거절해
+ * 락이 만료된 뒤에 늦게 도착한 이전 보유자의 쓰기를 막을 수 있다.
+ */
+public final class FencingTokenHolder {
+    private static final ThreadLocal<Long> TOKEN = new ThreadLocal<>();
+
+    private FencingTokenHolder() {
+    }
+
+    /**
+     * 현재 스레드가 보유한 펜싱 토큰
+     */
+    public static long get() {
+        Long token = TOKEN.get();
+        if (token == null) {
+            throw new IllegalStateException("펜싱 토큰이 없습니다. strategy = FENCED인 @DistributedLock 메서드 안에서만 조회할 수 있습니다.");
+        }
+        return token;
+    }
+
+    /**
+     * 현재 스레드의 토큰을 바꾸고 이전 토큰을 반환한다. 중첩된 FENCED 메서드가 끝나면 {@link #restore(Long)}로 되돌린다.
+     *
+     * @return : 이전 토큰 (없으면 null)
+     */
+    static Long replace(long token) {
+        Long previous = TOKEN.get();
+        TOKEN.set(token);
+        return previous;
+    }
+
+    /**
+     * 바깥 호출의 토큰으로 되돌린다. 바깥 호출이 없으면(null) 토큰을 제거한다.
+     */
+    static void restore(Long previous) {
+        if (previous == null) {
+            TOKEN.remove();
+        } else {
+            TOKEN.set(previous);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.test.concurrent.aop;
+
+/**
+ * {@link DistributedLock}의 락 임대 방식
+ */
+public enum LeaseMode {
+    /**
+     * leaseTime이 지나면 작업 완료 여부와 관계없이 락이 해제된다.
+     */
+    FIXED,
+    /**
+     * Redisson 워치독이 락을 보유한 동안 TTL을 주기적으로 연장한다. leaseTime은 무시된다. <br/>
+     * 기본 TTL은 coupon.lock.watchdog-timeout-ms이며, 보유 노드가 죽으면 해당 시간 안에 락이 해제된다.
+     */
+    WATCHDOG
+}
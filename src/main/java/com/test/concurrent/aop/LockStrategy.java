@@ -0,0 +1,66 @@
+package com.test.concurrent.aop;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+/**
+ * {@link DistributedLock}이 사용할 Redisson 락 종류
+ */
+public enum LockStrategy {
+    /**
+     * 비공정 락. 해제 시 pub/sub으로 대기자를 깨우며, 먼저 도착한 스레드가 먼저 획득한다는 보장은 없다.
+     */
+    REENTRANT {
+        @Override
+        public RLock getLock(RedissonClient redissonClient, String key) {
+            return redissonClient.getLock(key);
+        }
+    },
+    /**
+     * 공정 락. 요청 순서대로 획득하므로 꼬리 지연이 줄어드는 대신, 대기 큐 관리 비용으로 처리량이 떨어진다.
+     */
+    FAIR {
+        @Override
+        public RLock getLock(RedissonClient redissonClient, String key) {
+            return redissonClient.getFairLock(key);
+        }
+    },
+    /**
+     * 스핀 락. pub/sub 대신 지수 백오프로 재시도하므로, 락 보유 시간이 짧고 대기자가 적을 때 유리하다.
+     */
+    SPIN {
+        @Override
+        public RLock getLock(RedissonClient redissonClient, String key) {
+            return redissonClient.getSpinLock(key);
+        }
+    },
+    /**
+     * 펜싱 토큰을 발급하는 락. 획득할 때마다 단조 증가하는 토큰이 함께 발급된다.
+     */
+    FENCED {
+        @Override
+        public RLock getLock(RedissonClient redissonClient, String key) {
+            return redissonClient.getFencedLock(key);
+        }
+    },
+    /**
+     * 읽기 락. 같은 key의 읽기 락끼리는 공유되며, 쓰기 락과는 배타적이다.
+     */
+    READ {
+        @Override
+        public RLock getLock(RedissonClient redissonClient, String key) {
+            return redissonClient.getReadWriteLock(key).readLock();
+        }
+    },
+    /**
+     * 쓰기 락. 같은 key의 읽기/쓰기 락 모두와 배타적이다.
+     */
+    WRITE {
+        @Override
+        public RLock getLock(RedissonClient redissonClient, String key) {
+            return redissonClient.getReadWriteLock(key).writeLock();
+        }
+    };
+
+    public abstract RLock getLock(RedissonClient redissonClient, String key);
+}
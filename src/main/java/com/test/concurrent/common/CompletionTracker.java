@@ -0,0 +1,72 @@
+package com.test.concurrent.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 처리 중인 작업 수를 추적하고, 모든 작업이 끝나는 시점을 통지한다.
+ * <p>
+ * 주기적으로 상태를 확인(polling)하지 않고, 마지막 작업이 끝나는 순간 대기 중인 스레드를 깨운다.
+ * 작업 수에 상한이 없다는 점에서 {@link java.util.concurrent.Phaser}(최대 65535 parties)와 다르다.
+ */
+public class CompletionTracker {
+    private final AtomicLong pending = new AtomicLong();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition drained = lock.newCondition();
+
+    public void begin() {
+        pending.incrementAndGet();
+    }
+
+    public void complete() {
+        if (pending.decrementAndGet() == 0L) {
+            lock.lock();
+            try {
+                drained.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 처리 중인 작업이 없을 때까지 대기한다.
+     */
+    public void await() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending.get() > 0L) {
+                drained.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 처리 중인 작업이 없을 때까지 최대 timeout 동안 대기한다.
+     *
+     * @return : 모든 작업이 끝났는지 여부
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (pending.get() > 0L) {
+                if (remaining <= 0L) {
+                    return false;
+                }
+                remaining = drained.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getPendingCount() {
+        return pending.get();
+    }
+}
@@ -0,0 +1,84 @@
+package com.test.concurrent.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 키별 충돌률을 추적해, 충돌이 잦은 키를 일정 시간 동안 경합 상태로 표시한다.
+ * <p>
+ * - 충돌률은 시도 결과(충돌 1, 성공 0)의 지수 이동 평균(가중치 1/8)이며, ppm 단위 정수로 CAS 갱신하므로 기록 시 할당이 없다. <br/>
+ * - 충돌률이 escalateThreshold 이상이 되면 cooldown 동안 경합 상태가 되고, 충돌률은 0으로 초기화된다. <br/>
+ * - cooldown이 지나면 다시 낙관적으로 시도하며, 충돌이 계속되면 다시 경합 상태가 된다.
+ */
+public class ContentionTracker<K> {
+    private static final int PPM = 1_000_000;
+    private static final int EWMA_SHIFT = 3;
+
+    private final int escalateThresholdPpm;
+    private final long cooldownNanos;
+    private final Map<K, State> states = new ConcurrentHashMap<>();
+
+    /**
+     * @param escalateThreshold : 경합 상태로 전환할 충돌률 (0 < threshold < 1)
+     * @param cooldown          : 경합 상태 유지 시간
+     * @param unit              : cooldown 단위
+     */
+    public ContentionTracker(double escalateThreshold, long cooldown, TimeUnit unit) {
+        if (escalateThreshold <= 0 || escalateThreshold >= 1) {
+            throw new IllegalArgumentException("충돌률 임계값은 0보다 크고 1보다 작아야 합니다.");
+        }
+        this.escalateThresholdPpm = (int) (escalateThreshold * PPM);
+        this.cooldownNanos = unit.toNanos(cooldown);
+    }
+
+    /**
+     * 키가 경합 상태인지 여부
+     */
+    public boolean isContended(K key) {
+        State state = states.get(key);
+        return state != null && System.nanoTime() - state.contendedUntil < 0;
+    }
+
+    public void recordSuccess(K key) {
+        record(key, 0);
+    }
+
+    public void recordConflict(K key) {
+        State state = record(key, PPM);
+        int rate = state.conflictRatePpm.get();
+        if (rate >= escalateThresholdPpm && state.conflictRatePpm.compareAndSet(rate, 0)) {
+            state.contendedUntil = System.nanoTime() + cooldownNanos;
+            state.escalations.incrementAndGet();
+        }
+    }
+
+    /**
+     * 현재 충돌률 (0 ~ 1)
+     */
+    public double getConflictRate(K key) {
+        State state = states.get(key);
+        return state == null ? 0.0 : (double) state.conflictRatePpm.get() / PPM;
+    }
+
+    /**
+     * 키가 경합 상태로 전환된 누적 횟수
+     */
+    public int getEscalationCount(K key) {
+        State state = states.get(key);
+        return state == null ? 0 : state.escalations.get();
+    }
+
+    private State record(K key, int sample) {
+        State state = states.computeIfAbsent(key, k -> new State());
+        state.conflictRatePpm.accumulateAndGet(sample, (rate, x) -> rate + ((x - rate) >> EWMA_SHIFT));
+        return state;
+    }
+
+    private static class State {
+        private final AtomicInteger conflictRatePpm = new AtomicInteger();
+        private final AtomicInteger escalations = new AtomicInteger();
+        private volatile long contendedUntil = System.nanoTime();
+    }
+}
@@ -1,13 +1,52 @@
 package com.test.concurrent.common;
 
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.util.List;
+
 /**
  * Spring Expression Language (SpEL)을 사용한 커스텀 EL 파서
+ * <p>
+ * - {@link #getDynamicValue(String[], Object[], String)}는 호출마다 {@link StandardEvaluationContext}를 만들어 평가하므로,
+ *   타입 참조({@code T(...)}), 생성자 호출 등 SpEL 전체 문법을 사용할 수 있다. <br/>
+ * - {@link #parseExpression(String)}으로 파싱한 표현식은 {@link SimpleEvaluationContext} 기반의 읽기 전용 컨텍스트로 평가한다.
+ *   메서드 파라미터 변수, 프로퍼티 읽기, 인스턴스 메서드 호출만 허용되며, 타입 참조, 생성자 호출, 빈 참조({@code @bean}), 대입은 평가 시 실패한다.
  */
 public class CustomSpringELParser {
+    /**
+     * 첫 평가 이후 바이트코드로 컴파일하는 파서. 컴파일할 수 없는 표현식은 인터프리터 모드로 평가된다.
+     */
+    private static final ExpressionParser COMPILING_PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, CustomSpringELParser.class.getClassLoader())
+    );
+
+    /**
+     * 모든 평가가 공유하는 컨텍스트 템플릿. 변수를 담지 않으므로 스레드 간에 공유해도 안전하다.
+     * 락 키 표현식은 메서드 파라미터를 읽기만 하므로 읽기 전용 데이터 바인딩과 인스턴스 메서드 호출만 허용한다.
+     */
+    private static final EvaluationContext CONTEXT_TEMPLATE = SimpleEvaluationContext.forReadOnlyDataBinding()
+            .withInstanceMethods()
+            .build();
+
     /**
      * SpEL을 사용하여 동적으로 값을 평가한다.
      *
@@ -27,5 +66,113 @@ public class CustomSpringELParser {
 
         return parser.parseExpression(key).getValue(context, Object.class);
     }
-}
 
+    /**
+     * 재사용할 SpEL 표현식을 파싱한다. 반환된 표현식은 스레드 안전하며, 캐싱해서 사용해야 한다.
+     *
+     * @param key : SpEL 표현식
+     * @return : 파싱된 표현식
+     */
+    public static Expression parseExpression(String key) {
+        return COMPILING_PARSER.parseExpression(key);
+    }
+
+    /**
+     * 미리 파싱된 SpEL 표현식을 평가한다.
+     *
+     * @param parameterNames : 메서드 파라미터 이름
+     * @param args           : 메서드 파라미터 값
+     * @param expression     : {@link #parseExpression(String)}으로 파싱된 표현식
+     * @return : 평가된 값
+     */
+    public static Object getDynamicValue(String[] parameterNames, Object[] args, Expression expression) {
+        MethodArgumentContext context = new MethodArgumentContext(parameterNames, args);
+
+        try {
+            return expression.getValue(context, Object.class);
+        } catch (SpelEvaluationException e) {
+            // 컴파일 당시와 인자 타입이 달라 컴파일된 코드가 실패하면, 인터프리터 모드로 되돌려 다시 평가한다.
+            if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION || !(expression instanceof SpelExpression spelExpression)) {
+                throw e;
+            }
+            spelExpression.revertToInterpreted();
+            return expression.getValue(context, Object.class);
+        }
+    }
+
+    /**
+     * 메서드 파라미터를 {@code #파라미터명} 변수로 노출하는 평가 컨텍스트
+     * <p>
+     * 변수 조회는 파라미터 이름 배열을 직접 탐색하고, 나머지는 {@link #CONTEXT_TEMPLATE}에 위임한다.
+     * 호출마다 변수 맵이나 리졸버 목록을 만들지 않고, 배열 두 개를 참조하는 객체 하나만 생성한다.
+     */
+    private static final class MethodArgumentContext implements EvaluationContext {
+        private final String[] parameterNames;
+        private final Object[] args;
+
+        private MethodArgumentContext(String[] parameterNames, Object[] args) {
+            this.parameterNames = parameterNames;
+            this.args = args;
+        }
+
+        @Override
+        public Object lookupVariable(String name) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(name)) {
+                    return args[i];
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void setVariable(String name, Object value) {
+            throw new IllegalStateException("락 키 표현식에서는 변수를 설정할 수 없습니다. name=" + name);
+        }
+
+        @Override
+        public TypedValue getRootObject() {
+            return CONTEXT_TEMPLATE.getRootObject();
+        }
+
+        @Override
+        public List<PropertyAccessor> getPropertyAccessors() {
+            return CONTEXT_TEMPLATE.getPropertyAccessors();
+        }
+
+        @Override
+        public List<ConstructorResolver> getConstructorResolvers() {
+            return CONTEXT_TEMPLATE.getConstructorResolvers();
+        }
+
+        @Override
+        public List<MethodResolver> getMethodResolvers() {
+            return CONTEXT_TEMPLATE.getMethodResolvers();
+        }
+
+        @Override
+        public BeanResolver getBeanResolver() {
+            return CONTEXT_TEMPLATE.getBeanResolver();
+        }
+
+        @Override
+        public TypeLocator getTypeLocator() {
+            return CONTEXT_TEMPLATE.getTypeLocator();
+        }
+
+        @Override
+        public TypeConverter getTypeConverter() {
+            return CONTEXT_TEMPLATE.getTypeConverter();
+        }
+
+        @Override
+        public TypeComparator getTypeComparator() {
+            return CONTEXT_TEMPLATE.getTypeComparator();
+        }
+
+        @Override
+        public OperatorOverloader getOperatorOverloader() {
+            return CONTEXT_TEMPLATE.getOperatorOverloader();
+        }
+    }
+}
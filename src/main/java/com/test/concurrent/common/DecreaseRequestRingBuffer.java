@@ -0,0 +1,165 @@
+package com.test.concurrent.common;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 쿠폰 차감 요청을 전달하는 다중 생산자/단일 소비자 링 버퍼 (LMAX Disruptor 방식)
+ * <p>
+ * - 슬롯은 생성 시점에 원시 타입 배열로 미리 할당되며, 발행/소비 과정에서 객체를 생성하지 않는다. <br/>
+ * - 요청마다 참조 하나(attachment, 예: 완료 통지용 Future)를 함께 전달할 수 있으며, 소비 후 슬롯에서 참조를 지운다. <br/>
+ * - 생산자는 시퀀스를 CAS로 할당받아 슬롯에 값을 쓰고, 슬롯별 회차(round)를 기록해 발행한다. <br/>
+ * - 소비자는 회차가 일치하는 슬롯까지만 연속으로 읽고, 소비한 시퀀스를 공개해 슬롯을 반환한다.
+ */
+public class DecreaseRequestRingBuffer<T> {
+    private final int bufferSize;
+    private final int mask;
+    private final int indexShift;
+    private final long[] couponIds;
+    private final long[] requesterIds;
+    private final Object[] attachments;
+    private final AtomicIntegerArray availableRounds; // 슬롯별로 마지막으로 발행된 회차
+    private final AtomicLong producerSequence = new AtomicLong(-1L); // 마지막으로 할당된 시퀀스
+    private final AtomicLong consumerSequence = new AtomicLong(-1L); // 마지막으로 소비한 시퀀스
+    private final WaitStrategy waitStrategy;
+
+    public DecreaseRequestRingBuffer(int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("버퍼 크기는 2의 거듭제곱이어야 합니다.");
+        }
+
+        this.bufferSize = bufferSize;
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.couponIds = new long[bufferSize];
+        this.requesterIds = new long[bufferSize];
+        this.attachments = new Object[bufferSize];
+        this.availableRounds = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            availableRounds.set(i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * 요청을 발행한다. 빈 슬롯이 없으면 소비자가 슬롯을 반환할 때까지 대기한다.
+     */
+    public void publish(long couponId, long requesterId, T attachment) {
+        long sequence = producerSequence.incrementAndGet();
+        long wrapPoint = sequence - bufferSize;
+
+        int counter = 0;
+        while (wrapPoint > consumerSequence.get()) {
+            counter = waitStrategy.idle(counter);
+        }
+        write(sequence, couponId, requesterId, attachment);
+    }
+
+    /**
+     * 요청을 발행한다. 빈 슬롯이 없으면 대기하지 않는다.
+     *
+     * @return : 발행 여부
+     */
+    public boolean tryPublish(long couponId, long requesterId, T attachment) {
+        long current;
+        long next;
+        do {
+            current = producerSequence.get();
+            next = current + 1;
+            if (next - bufferSize > consumerSequence.get()) {
+                return false;
+            }
+        } while (!producerSequence.compareAndSet(current, next));
+
+        write(next, couponId, requesterId, attachment);
+        return true;
+    }
+
+    /**
+     * 요청을 발행한다. 빈 슬롯이 없으면 최대 timeoutNanos 동안 대기한다.
+     *
+     * @return : 발행 여부
+     */
+    public boolean tryPublish(long couponId, long requesterId, T attachment, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        int counter = 0;
+        while (!tryPublish(couponId, requesterId, attachment)) {
+            if (deadline - System.nanoTime() <= 0) {
+                return false;
+            }
+            counter = waitStrategy.idle(counter);
+        }
+        return true;
+    }
+
+    /**
+     * 발행된 요청을 최대 maxElements개까지 순서대로 handler에 전달한다. 단일 소비자 스레드에서만 호출해야 한다.
+     *
+     * @return : 전달한 요청 수
+     */
+    @SuppressWarnings("unchecked")
+    public int drain(Handler<T> handler, int maxElements) {
+        long current = consumerSequence.get();
+        int count = 0;
+
+        while (count < maxElements) {
+            long next = current + 1;
+            int index = (int) (next & mask);
+            if (availableRounds.get(index) != round(next)) {
+                break;
+            }
+
+            T attachment = (T) attachments[index];
+            attachments[index] = null;
+            handler.onRequest(couponIds[index], requesterIds[index], attachment);
+            current = next;
+            count++;
+        }
+
+        if (count > 0) {
+            consumerSequence.lazySet(current);
+        }
+        return count;
+    }
+
+    /**
+     * 다음 요청이 발행되었는지 여부. 단일 소비자 스레드에서만 호출해야 한다.
+     */
+    public boolean hasAvailable() {
+        long next = consumerSequence.get() + 1;
+        return availableRounds.get((int) (next & mask)) == round(next);
+    }
+
+    /**
+     * 소비를 기다리는 요청 수 (발행 중인 요청 포함)
+     */
+    public int size() {
+        return (int) (producerSequence.get() - consumerSequence.get());
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    private void write(long sequence, long couponId, long requesterId, T attachment) {
+        int index = (int) (sequence & mask);
+        couponIds[index] = couponId;
+        requesterIds[index] = requesterId;
+        attachments[index] = attachment;
+        availableRounds.set(index, round(sequence)); // volatile 쓰기로 슬롯 값을 소비자에게 공개
+    }
+
+    private int round(long sequence) {
+        return (int) (sequence >>> indexShift);
+    }
+
+    @FunctionalInterface
+    public interface Handler<T> {
+        void onRequest(long couponId, long requesterId, T attachment);
+    }
+}
@@ -0,0 +1,86 @@
+package com.test.concurrent.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 키별 GCRA(Generic Cell Rate Algorithm) 처리율 제한기
+ * <p>
+ * - 키마다 다음 요청이 허용되는 이론적 도착 시각(TAT)만 System.nanoTime 기준 long으로 보관하고, CAS로 갱신한다. <br/>
+ * - 허용 조건은 TAT - now <= burstTolerance 이며, 허용 시 TAT = max(TAT, now) + emissionInterval 로 갱신한다.
+ *   burst가 1이면 직전 허용 요청으로부터 emissionInterval 이내의 요청을 모두 거절한다. <br/>
+ * - 키의 상태는 최초 요청 시에만 생성되며, 이후 판정에는 할당이 없다. <br/>
+ * - TAT가 지난 키는 초기 상태와 같으므로, 요청 중 일부가 표본으로 유휴 키를 정리한다.
+ */
+public class GcraRateLimiter<K> {
+    private static final long EVICTED = Long.MIN_VALUE;
+    private static final int EVICTION_SAMPLE_MASK = 1023; // 평균 1024번의 요청마다 한 번 정리
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Map<K, AtomicLong> states = new ConcurrentHashMap<>();
+
+    /**
+     * @param permitsPerSecond : 키별 초당 허용 요청 수
+     * @param burst            : 연속으로 허용하는 최대 요청 수 (1 이상)
+     */
+    public GcraRateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("처리율 제한 설정이 올바르지 않습니다.");
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+    }
+
+    /**
+     * 요청 허용 여부를 판정하고, 허용하면 처리율을 차감한다.
+     */
+    public boolean tryAcquire(K key) {
+        if ((ThreadLocalRandom.current().nextInt() & EVICTION_SAMPLE_MASK) == 0) {
+            evictIdle(System.nanoTime());
+        }
+
+        while (true) {
+            AtomicLong state = states.get(key);
+            if (state == null) {
+                state = states.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+            }
+            long now = System.nanoTime(); // 새로 만든 상태의 TAT보다 늦은 시각이어야 한다.
+            long tat = state.get();
+            if (tat == EVICTED) {
+                states.remove(key, state); // 정리 중인 상태는 새 상태로 교체한다.
+                continue;
+            }
+
+            long base = Math.max(tat - now, 0L);
+            if (base > burstToleranceNanos) {
+                return false;
+            }
+            if (state.compareAndSet(tat, now + base + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 상태를 보관 중인 키의 수
+     */
+    public int getTrackedKeyCount() {
+        return states.size();
+    }
+
+    /**
+     * TAT가 지난 키를 제거한다. 제거 전에 상태를 EVICTED로 바꾸므로, 동시에 허용된 요청의 갱신이 유실되지 않는다.
+     */
+    private void evictIdle(long now) {
+        for (Map.Entry<K, AtomicLong> entry : states.entrySet()) {
+            AtomicLong state = entry.getValue();
+            long tat = state.get();
+            if (tat != EVICTED && tat - now <= 0 && state.compareAndSet(tat, EVICTED)) {
+                states.remove(entry.getKey(), state);
+            }
+        }
+    }
+}
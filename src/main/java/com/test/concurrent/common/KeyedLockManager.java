@@ -0,0 +1,142 @@
+package com.test.concurrent.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 키별 JVM 내부 락. 같은 키의 작업은 서로 배제하고, 다른 키의 작업은 서로 기다리지 않는다.
+ * <p>
+ * - PER_KEY : 키마다 락을 만들고, 사용 중인 스레드 수(참조 수)가 0이 되면 제거한다. 키 사이의 간섭이 전혀 없다. <br/>
+ * - STRIPED : 키의 해시로 고정된 개수의 락을 나눠 쓴다. 메모리 사용량이 일정한 대신, 같은 락에 배정된 다른 키끼리는 서로 기다린다. <br/>
+ * - 상호 배제는 이 인스턴스 안에서만 보장된다. 여러 노드에서의 상호 배제가 필요하면 분산 락을 사용해야 한다.
+ */
+public class KeyedLockManager<K> {
+    private final Mode mode;
+    private final boolean fair;
+    private final Map<K, RefCountedLock> locks = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+
+    public enum Mode {
+        PER_KEY, STRIPED
+    }
+
+    public KeyedLockManager(Mode mode, int stripeCount, boolean fair) {
+        if (mode == Mode.STRIPED && (stripeCount < 1 || Integer.bitCount(stripeCount) != 1)) {
+            throw new IllegalArgumentException("락 개수는 2의 거듭제곱이어야 합니다.");
+        }
+        this.mode = mode;
+        this.fair = fair;
+        this.stripes = mode == Mode.STRIPED ? createStripes(stripeCount, fair) : null;
+    }
+
+    /**
+     * 키의 락을 획득한 상태로 task를 실행한다.
+     */
+    public <T> T executeWithLock(K key, Supplier<T> task) {
+        ReentrantLock lock = acquire(key);
+        lock.lock();
+        try {
+            return task.get();
+        } finally {
+            lock.unlock();
+            release(key);
+        }
+    }
+
+    /**
+     * timeout 동안 키의 락 획득을 시도하고, 획득하면 task를 실행한다.
+     *
+     * @return : task 실행 여부 (락 획득 실패 시 false)
+     */
+    public boolean tryExecuteWithLock(K key, long timeout, TimeUnit unit, Runnable task) throws InterruptedException {
+        ReentrantLock lock = acquire(key);
+        try {
+            if (!lock.tryLock(timeout, unit)) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            release(key);
+        }
+    }
+
+    /**
+     * timeout 동안 키의 락 획득을 시도하고, 획득하면 task를 실행한다. task의 예외는 그대로 전달된다.
+     *
+     * @param onTimeout : 락 획득에 실패했을 때 반환할 값
+     * @return : task의 실행 결과. 락 획득 실패 시 onTimeout
+     */
+    public <T> T tryExecuteWithLock(K key, long timeout, TimeUnit unit, T onTimeout, ThrowingSupplier<T> task) throws Throwable {
+        ReentrantLock lock = acquire(key);
+        try {
+            if (!lock.tryLock(timeout, unit)) {
+                return onTimeout;
+            }
+            try {
+                return task.get();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            release(key);
+        }
+    }
+
+    /**
+     * 락을 보유 중이거나 기다리는 키의 수 (PER_KEY 전용)
+     */
+    public int getActiveKeyCount() {
+        return locks.size();
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T> {
+        T get() throws Throwable;
+    }
+
+    private ReentrantLock acquire(K key) {
+        if (mode == Mode.STRIPED) {
+            int hash = key.hashCode();
+            return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        }
+
+        // 참조 수 증가와 제거가 같은 키의 compute 안에서만 일어나므로, 사용 중인 락이 제거되지 않는다.
+        return locks.compute(key, (k, ref) -> {
+            RefCountedLock counted = ref == null ? new RefCountedLock(fair) : ref;
+            counted.references++;
+            return counted;
+        }).lock;
+    }
+
+    private void release(K key) {
+        if (mode == Mode.STRIPED) {
+            return;
+        }
+        locks.computeIfPresent(key, (k, ref) -> --ref.references == 0 ? null : ref);
+    }
+
+    private static ReentrantLock[] createStripes(int stripeCount, boolean fair) {
+        ReentrantLock[] stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock(fair);
+        }
+        return stripes;
+    }
+
+    private static class RefCountedLock {
+        private final ReentrantLock lock;
+        private int references; // ConcurrentHashMap.compute 안에서만 변경한다.
+
+        private RefCountedLock(boolean fair) {
+            this.lock = new ReentrantLock(fair);
+        }
+    }
+}
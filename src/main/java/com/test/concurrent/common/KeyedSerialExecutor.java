@@ -0,0 +1,61 @@
+package com.test.concurrent.common;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키의 작업은 제출 순서대로 하나씩, 다른 키의 작업은 executor에서 병렬로 실행한다. (actor-per-key)
+ * <p>
+ * - 키마다 마지막으로 제출된 작업(tail)만 보관하고, 새 작업은 tail이 끝난 뒤 실행되도록 연결한다. <br/>
+ * - tail이 끝났을 때 그 뒤에 연결된 작업이 없으면 키를 제거하므로, 유휴 키는 따로 정리하지 않아도 된다. <br/>
+ * - 실행 순서는 이 인스턴스 안에서만 보장된다. 여러 노드에서의 상호 배제가 필요하면 분산 락을 사용해야 한다.
+ */
+public class KeyedSerialExecutor<K> {
+    private final Executor executor;
+    private final Map<K, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 같은 키로 앞서 제출된 작업이 모두 끝난 뒤 task를 실행한다.
+     *
+     * @return : task의 결과. task가 예외를 던지면 예외로 완료된다.
+     */
+    public <T> CompletableFuture<T> submit(K key, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        CompletableFuture<Void> tail = tails.compute(key, (k, previous) -> {
+            CompletableFuture<Void> start = previous == null ? CompletableFuture.completedFuture(null) : previous;
+            return start.thenRunAsync(() -> run(task, result), executor);
+        });
+
+        tail.whenComplete((ignored, e) -> {
+            if (e != null) {
+                // executor가 작업을 거절한 경우 (종료 등)
+                result.completeExceptionally(e);
+            }
+            tails.remove(key, tail);
+        });
+        return result;
+    }
+
+    /**
+     * 실행 중이거나 실행을 기다리는 작업이 있는 키의 수
+     */
+    public int getActiveKeyCount() {
+        return tails.size();
+    }
+
+    private <T> void run(Supplier<T> task, CompletableFuture<T> result) {
+        try {
+            result.complete(task.get());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+}
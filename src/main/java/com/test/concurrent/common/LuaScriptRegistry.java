@@ -0,0 +1,182 @@
+package com.test.concurrent.common;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * classpath {@code scripts/*.lua}를 기동 시 한 번 읽어 SCRIPT LOAD하고, 파일 이름(확장자 제외)으로 실행하는 Lua 스크립트 저장소
+ * <p>
+ * - 요청마다 스크립트 문자열을 만들거나 SHA를 계산하지 않으며, 실행은 EVALSHA로 SHA만 전송한다. <br/>
+ * - Redis 재시작 등으로 스크립트 캐시가 비어 NOSCRIPT가 발생하면 RedisTemplate이 EVAL로 다시 실행하고,
+ *   이때 스크립트가 다시 캐시되므로 이후 요청은 다시 EVALSHA로 처리된다. <br/>
+ * - 스크립트별 호출 수, 에러 수, 지연 시간을 {@link #getStats(String)}로 제공한다.
+ */
+@Slf4j
+@Component
+public class LuaScriptRegistry {
+    private static final String SCRIPT_LOCATION = "classpath*:scripts/*.lua";
+    private static final String SCRIPT_EXTENSION = ".lua";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Map<String, ScriptEntry> scripts = new ConcurrentHashMap<>();
+
+    public LuaScriptRegistry(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        Resource[] resources;
+        try {
+            resources = new PathMatchingResourcePatternResolver().getResources(SCRIPT_LOCATION);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lua 스크립트를 찾을 수 없습니다.", e);
+        }
+
+        for (Resource resource : resources) {
+            String fileName = resource.getFilename();
+            if (fileName == null) {
+                continue;
+            }
+            String name = fileName.substring(0, fileName.length() - SCRIPT_EXTENSION.length());
+            scripts.put(name, new ScriptEntry(read(resource)));
+        }
+
+        try {
+            scripts.forEach((name, entry) -> {
+                String sha = redisTemplate.execute((RedisCallback<String>) connection -> load(connection, entry.source));
+                log.info("Lua 스크립트 로드 완료 (name={}, sha={})", name, sha);
+            });
+        } catch (RuntimeException e) {
+            // 첫 실행에서 EVAL로 다시 캐시되므로 기동은 계속한다.
+            log.warn("Lua 스크립트를 미리 로드하지 못했습니다.", e);
+        }
+    }
+
+    /**
+     * 이름으로 스크립트를 실행한다.
+     *
+     * @param name       : 스크립트 파일 이름 (확장자 제외)
+     * @param resultType : 반환 타입 (Long, Boolean, List 등)
+     * @param keys       : KEYS
+     * @param args       : ARGV
+     * @return : 스크립트 반환 값
+     */
+    public <T> T execute(String name, Class<T> resultType, List<String> keys, Object... args) {
+        ScriptEntry entry = scripts.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("등록되지 않은 Lua 스크립트입니다. name=" + name);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return redisTemplate.execute(entry.script(resultType), keys, args);
+        } catch (RuntimeException e) {
+            entry.errors.increment();
+            throw e;
+        } finally {
+            entry.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 스크립트의 누적 실행 통계
+     */
+    public ScriptStats getStats(String name) {
+        ScriptEntry entry = scripts.get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("등록되지 않은 Lua 스크립트입니다. name=" + name);
+        }
+        return entry.stats();
+    }
+
+    /**
+     * 등록된 모든 스크립트의 누적 실행 통계 (이름순)
+     */
+    public Map<String, ScriptStats> getAllStats() {
+        Map<String, ScriptStats> stats = new TreeMap<>();
+        scripts.forEach((name, entry) -> stats.put(name, entry.stats()));
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private String load(RedisConnection connection, String source) {
+        return connection.scriptingCommands().scriptLoad(source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String read(Resource resource) {
+        try {
+            return resource.getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lua 스크립트를 읽을 수 없습니다. resource=" + resource, e);
+        }
+    }
+
+    /**
+     * @param calls      : 실행 횟수
+     * @param errors     : 에러 횟수
+     * @param totalNanos : 누적 실행 시간 (ns)
+     * @param maxNanos   : 최대 실행 시간 (ns)
+     */
+    public record ScriptStats(long calls, long errors, long totalNanos, long maxNanos) {
+        public long averageMicros() {
+            return calls == 0 ? 0L : TimeUnit.NANOSECONDS.toMicros(totalNanos / calls);
+        }
+
+        public long maxMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxNanos);
+        }
+    }
+
+    private static class ScriptEntry {
+        private final String source;
+        private final ConcurrentMap<Class<?>, DefaultRedisScript<?>> scriptsByResultType = new ConcurrentHashMap<>();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private ScriptEntry(String source) {
+            this.source = source;
+        }
+
+        /**
+         * 반환 타입별로 스크립트 객체를 한 번만 만든다. SHA는 스크립트 객체가 처음 실행될 때 한 번 계산된다.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> DefaultRedisScript<T> script(Class<T> resultType) {
+            return (DefaultRedisScript<T>) scriptsByResultType.computeIfAbsent(resultType, type -> new DefaultRedisScript<>(source, type));
+        }
+
+        private void record(long elapsedNanos) {
+            calls.increment();
+            totalNanos.add(elapsedNanos);
+            if (elapsedNanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+            }
+        }
+
+        private ScriptStats stats() {
+            return new ScriptStats(calls.sum(), errors.sum(), totalNanos.sum(), maxNanos.get());
+        }
+    }
+}
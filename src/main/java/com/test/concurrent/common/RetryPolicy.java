@@ -0,0 +1,116 @@
+package com.test.concurrent.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 지수 백오프(decorrelated jitter)와 재시도 예산을 적용한 재시도 정책
+ * <p>
+ * - 대기 시간은 min(maxDelay, random(baseDelay, 이전 대기 시간 * 3))으로 정한다. 대기 시간이 호출마다 흩어지므로 충돌한 요청들이 같은 시점에 다시 충돌하지 않는다. <br/>
+ * - 재시도 예산 : 최초 시도마다 budgetRatio만큼 적립하고, 재시도마다 1씩 사용한다. 예산이 없으면 재시도하지 않는다.
+ *   장애 상황에서 재시도가 전체 요청의 일정 비율을 넘지 않도록 막아, 재시도가 부하를 키우는 재시도 폭주를 방지한다. <br/>
+ * - 인스턴스는 스레드 안전하며, 예산은 이 정책을 공유하는 모든 호출이 함께 사용한다.
+ */
+public class RetryPolicy {
+    private static final long TOKEN_SCALE = 1000L;
+
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final int maxAttempts;
+    private final long depositPerCall;
+    private final long budgetCapacity;
+    private final AtomicLong budget;
+
+    /**
+     * @param baseDelay      : 첫 재시도 전 최소 대기 시간
+     * @param maxDelay       : 재시도 전 최대 대기 시간
+     * @param unit           : 대기 시간 단위
+     * @param maxAttempts    : 호출당 최대 시도 횟수 (최초 시도 포함)
+     * @param budgetRatio    : 최초 시도당 적립되는 재시도 예산
+     * @param budgetCapacity : 최대 적립 가능한 재시도 예산
+     */
+    public RetryPolicy(long baseDelay, long maxDelay, TimeUnit unit, int maxAttempts, double budgetRatio, long budgetCapacity) {
+        if (baseDelay < 1 || maxDelay < baseDelay || maxAttempts < 1) {
+            throw new IllegalArgumentException("재시도 정책 설정이 올바르지 않습니다.");
+        }
+        this.baseDelayNanos = unit.toNanos(baseDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.maxAttempts = maxAttempts;
+        this.depositPerCall = (long) (budgetRatio * TOKEN_SCALE);
+        this.budgetCapacity = budgetCapacity * TOKEN_SCALE;
+        this.budget = new AtomicLong(this.budgetCapacity);
+    }
+
+    /**
+     * action을 실행하고, retryable에 해당하는 예외가 발생하면 대기 후 다시 실행한다.
+     *
+     * @throws IllegalStateException : 최대 시도 횟수 혹은 재시도 예산을 초과한 경우. 마지막 예외를 cause로 포함한다.
+     */
+    public void execute(Runnable action, Predicate<RuntimeException> retryable) {
+        deposit();
+
+        long delayNanos = baseDelayNanos;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                action.run();
+                return;
+            } catch (RuntimeException e) {
+                if (!retryable.test(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    throw new IllegalStateException("재시도 횟수 초과", e);
+                }
+                if (!withdraw()) {
+                    throw new IllegalStateException("재시도 예산 초과", e);
+                }
+            }
+
+            delayNanos = nextDelay(delayNanos);
+            try {
+                TimeUnit.NANOSECONDS.sleep(delayNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("재시도 대기 중 인터럽트 발생", e);
+            }
+        }
+    }
+
+    /**
+     * 남은 재시도 예산 (재시도 횟수 단위)
+     */
+    public long getRemainingBudget() {
+        return budget.get() / TOKEN_SCALE;
+    }
+
+    private long nextDelay(long previousNanos) {
+        long upper = Math.min(maxDelayNanos, previousNanos * 3);
+        if (upper <= baseDelayNanos) {
+            return baseDelayNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(baseDelayNanos, upper + 1);
+    }
+
+    private void deposit() {
+        long current;
+        do {
+            current = budget.get();
+            if (current >= budgetCapacity) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(budgetCapacity, current + depositPerCall)));
+    }
+
+    private boolean withdraw() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN_SCALE) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN_SCALE));
+        return true;
+    }
+}
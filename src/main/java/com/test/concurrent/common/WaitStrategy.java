@@ -0,0 +1,53 @@
+package com.test.concurrent.common;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link DecreaseRequestRingBuffer}에서 슬롯을 기다리는 방식
+ * <p>
+ * - BUSY_SPIN : 지연 시간이 가장 짧지만 대기하는 동안 코어 하나를 점유한다. <br/>
+ * - YIELD : 잠시 스핀한 뒤 다른 스레드에 CPU를 양보한다. <br/>
+ * - PARK : 잠시 스핀한 뒤 스레드를 잠깐씩 재운다. CPU 사용량이 가장 적지만 깨어나는 데 수십 μs가 걸린다.
+ */
+public enum WaitStrategy {
+    BUSY_SPIN {
+        @Override
+        public int idle(int counter) {
+            Thread.onSpinWait();
+            return counter + 1;
+        }
+    },
+    YIELD {
+        @Override
+        public int idle(int counter) {
+            if (counter < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return counter + 1;
+        }
+    },
+    PARK {
+        @Override
+        public int idle(int counter) {
+            if (counter < SPIN_TRIES) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+            return counter + 1;
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 1_000L;
+
+    /**
+     * 한 번 대기한다.
+     *
+     * @param counter : 지금까지 연속으로 대기한 횟수
+     * @return : 다음 호출에 전달할 대기 횟수
+     */
+    public abstract int idle(int counter);
+}
@@ -0,0 +1,199 @@
+package com.test.concurrent.common;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 키별 재고를 메모리 카운터에서 차감하고, 누적된 차감량을 백그라운드에서 저장소에 반영(write-behind)하는 카운터
+ * <p>
+ * - 키별 재고는 최초 요청 시 loader로 한 번만 읽어오며, 이후 차감은 0 미만으로 내려가지 않는 CAS 연산으로 처리한다. <br/>
+ * - 미반영 차감량은 flushIntervalMillis 주기로, 혹은 한 키의 미반영 차감량이 flushThreshold에 도달하면 즉시 모아서 persister에 전달한다. <br/>
+ * - persister가 실패하면 차감량을 카운터에 되돌려 다음 flush에서 재시도한다. <br/>
+ * - 카운터가 재고를 들고 있는 동안 다른 경로로 저장소의 재고를 차감하면 카운터가 알지 못하므로 초과 발급이 발생한다.
+ *
+ * @param <K> : 카운터 키 (쿠폰 ID 등)
+ */
+@Slf4j
+public class WriteBehindStockCounter<K> {
+    private final String name;
+    private final Function<K, Long> loader;
+    private final Consumer<Map<K, Long>> persister;
+    private final long flushIntervalMillis;
+    private final long flushThreshold;
+
+    private final Map<K, StockCounter> counters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(); // flush 전담 스레드
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    /**
+     * @param name                : 로그에 사용할 이름
+     * @param loader              : 키의 현재 재고를 저장소에서 읽는다.
+     * @param persister           : 키별 미반영 차감량을 저장소에 반영한다. 실패하면 예외를 던져야 한다.
+     * @param flushIntervalMillis : 주기적 반영 간격 (ms)
+     * @param flushThreshold      : 즉시 반영을 요청할 키별 미반영 차감량
+     */
+    public WriteBehindStockCounter(String name, Function<K, Long> loader, Consumer<Map<K, Long>> persister, long flushIntervalMillis, long flushThreshold) {
+        this.name = name;
+        this.loader = loader;
+        this.persister = persister;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.flushThreshold = flushThreshold;
+    }
+
+    /**
+     * 주기적 반영을 시작한다.
+     */
+    public void start() {
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 재고를 1개 차감한다. 재고가 0이면 차감하지 않는다.
+     *
+     * @return : 차감 성공 여부
+     */
+    public boolean tryDecrease(K key) {
+        StockCounter counter = counters.computeIfAbsent(key, this::load);
+
+        long current;
+        do {
+            current = counter.available.get();
+            if (current < 1) {
+                return false;
+            }
+        } while (!counter.available.compareAndSet(current, current - 1));
+
+        if (counter.unflushed.incrementAndGet() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    /**
+     * 카운터가 알고 있는 잔여 재고 (저장소 반영 여부와 무관)
+     */
+    public long getAvailableStock(K key) {
+        return counters.computeIfAbsent(key, this::load).available.get();
+    }
+
+    /**
+     * 카운터가 키의 재고를 들고 있는지 여부
+     */
+    public boolean isLoaded(K key) {
+        return counters.containsKey(key);
+    }
+
+    /**
+     * 미반영 차감량을 모아 한 번에 반영한다.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+
+            Map<K, Long> deltas = new HashMap<>();
+            counters.forEach((key, counter) -> {
+                long delta = counter.unflushed.getAndSet(0L);
+                if (delta > 0) {
+                    deltas.put(key, delta);
+                }
+            });
+
+            if (deltas.isEmpty()) {
+                return;
+            }
+
+            try {
+                persister.accept(deltas);
+                log.debug("{} 반영 완료: {}", name, deltas);
+            } catch (RuntimeException e) {
+                // 반영하지 못한 차감량은 다음 flush에서 재시도한다. 카운터 제거는 flushLock 안에서만 일어나므로 카운터는 남아 있다.
+                deltas.forEach((key, delta) -> {
+                    StockCounter counter = counters.get(key);
+                    if (counter == null) {
+                        log.error("{} 반영 실패한 차감량을 되돌릴 카운터가 없습니다. key={}, delta={}", name, key, delta);
+                        return;
+                    }
+                    counter.unflushed.addAndGet(delta);
+                });
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 카운터를 제거한다. 제거 전 미반영 차감량을 반영하며, 이후 요청 시 저장소에서 재고를 다시 읽어온다. <br/>
+     * 해당 키의 차감 요청이 멈춘 뒤(판매 종료 등)에 호출해야 한다.
+     */
+    public void evict(K key) {
+        flushLock.lock();
+        try {
+            flush();
+            counters.remove(key);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 주기적 반영을 멈추고 남은 차감량을 모두 반영한다.
+     */
+    public void close() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * flush 전담 스레드에 반영을 요청한다. <br/>
+     * {@link #close()} 이후에는 전담 스레드가 없으므로, 이미 성공한 차감이 실패로 보이지 않도록 호출 스레드에서 바로 반영한다.
+     */
+    private void requestFlush() {
+        try {
+            flushExecutor.execute(this::flushQuietly);
+        } catch (RejectedExecutionException e) {
+            flushRequested.set(false);
+            flushQuietly();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("{} 반영 중 에러 발생", name, e);
+        }
+    }
+
+    private StockCounter load(K key) {
+        return new StockCounter(loader.apply(key));
+    }
+
+    private static class StockCounter {
+        private final AtomicLong available;
+        private final AtomicLong unflushed = new AtomicLong();
+
+        private StockCounter(long available) {
+            this.available = new AtomicLong(available);
+        }
+    }
+}
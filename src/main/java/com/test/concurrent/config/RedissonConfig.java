@@ -13,20 +13,25 @@ public class RedissonConfig {
     private final String host;
     private final int port;
     private final String password;
+    private final long lockWatchdogTimeoutMillis;
 
     public RedissonConfig(
             @Value("${spring.data.redis.host}") String host,
             @Value("${spring.data.redis.port}") int port,
-            @Value("${spring.data.redis.password}") String password
+            @Value("${spring.data.redis.password}") String password,
+            @Value("${coupon.lock.watchdog-timeout-ms:30000}") long lockWatchdogTimeoutMillis
     ) {
         this.host = host;
         this.port = port;
         this.password = password;
+        this.lockWatchdogTimeoutMillis = lockWatchdogTimeoutMillis;
     }
 
     @Bean
     public RedissonClient redissonClient() {
         Config config = new Config();
+        // LeaseMode.WATCHDOG 락의 기본 TTL. 워치독은 이 값의 1/3 주기로 TTL을 연장한다.
+        config.setLockWatchdogTimeout(lockWatchdogTimeoutMillis);
         config.useSingleServer()
                 .setAddress(REDISSON_HOST_PREFIX + host + ":" + port)
                 .setPassword(password);
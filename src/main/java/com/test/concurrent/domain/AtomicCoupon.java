@@ -1,5 +1,6 @@
 package com.test.concurrent.domain;
 
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -20,8 +21,10 @@ public class AtomicCoupon {
     private String name;
 
     /**
-     * 사용 가능 재고수량
+     * 사용 가능 재고수량 <br/>
+     * 엔티티는 트랜잭션마다 새로 로딩되므로, 요청 간에 공유되는 카운터가 필요하면 {@link com.test.concurrent.service.AtomicCouponStockRegistry}를 사용한다.
      */
+    @Convert(converter = AtomicLongConverter.class)
     private AtomicLong availableStock;
 
     public AtomicCoupon(String name, long availableStock) {
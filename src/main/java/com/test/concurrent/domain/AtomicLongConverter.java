@@ -0,0 +1,22 @@
+package com.test.concurrent.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AtomicLong} 필드를 BIGINT 컬럼으로 저장한다.
+ */
+@Converter
+public class AtomicLongConverter implements AttributeConverter<AtomicLong, Long> {
+    @Override
+    public Long convertToDatabaseColumn(AtomicLong attribute) {
+        return attribute == null ? null : attribute.get();
+    }
+
+    @Override
+    public AtomicLong convertToEntityAttribute(Long dbData) {
+        return dbData == null ? null : new AtomicLong(dbData);
+    }
+}
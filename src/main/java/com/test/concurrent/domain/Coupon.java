@@ -22,6 +22,11 @@ public class Coupon {
      */
     private long availableStock;
 
+    /**
+     * 마지막으로 재고를 변경한 분산 락 보유자의 펜싱 토큰
+     */
+    private long fencingToken;
+
     public Coupon(String name, long availableStock) {
         this.name = name;
         this.availableStock = availableStock;
@@ -32,6 +37,17 @@ public class Coupon {
         this.availableStock--;
     }
 
+    /**
+     * 남은 재고를 모두 꺼낸다. 재고를 다른 저장소(조각 등)로 옮길 때 사용한다.
+     *
+     * @return : 꺼낸 재고수량
+     */
+    public long takeAllStock() {
+        long stock = this.availableStock;
+        this.availableStock = 0;
+        return stock;
+    }
+
     private void validateStock() {
         if (availableStock < 1) {
             throw new IllegalArgumentException("재고가 부족합니다.");
@@ -0,0 +1,32 @@
+package com.test.concurrent.domain;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 쿠폰 재고를 여러 행으로 나눈 조각. 차감 요청이 조각별 행 락으로 분산되어, 하나의 쿠폰 행에 쓰기가 몰리지 않는다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"coupon_id", "shard_index"}))
+public class CouponStockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long couponId;
+    private int shardIndex;
+
+    /**
+     * 조각의 사용 가능 재고수량
+     */
+    private long availableStock;
+
+    public CouponStockShard(Long couponId, int shardIndex, long availableStock) {
+        this.couponId = couponId;
+        this.shardIndex = shardIndex;
+        this.availableStock = availableStock;
+    }
+}
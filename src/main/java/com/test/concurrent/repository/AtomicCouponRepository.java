@@ -2,6 +2,14 @@ package com.test.concurrent.repository;
 
 import com.test.concurrent.domain.AtomicCoupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface AtomicCouponRepository extends JpaRepository<AtomicCoupon, Long> {
+    /**
+     * availableStock은 {@link com.test.concurrent.domain.AtomicLongConverter}로 변환되는 속성이라 JPQL 산술 연산 대신 네이티브 쿼리를 사용한다.
+     */
+    @Modifying
+    @Query(value = "UPDATE atomic_coupon SET available_stock = available_stock - :count WHERE id = :couponId", nativeQuery = true)
+    void decreaseStock(Long couponId, long count);
 }
@@ -0,0 +1,28 @@
+package com.test.concurrent.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link CouponRepository}의 벌크 연산을 위한 커스텀 Repository
+ */
+public interface CouponBulkRepository {
+    /**
+     * 여러 쿠폰의 재고 차감량을 하나의 JDBC 배치로 반영한다.
+     *
+     * @param deltas : couponId별 차감 수량
+     */
+    @Transactional
+    void decreaseStockAll(Map<Long, Long> deltas);
+
+    /**
+     * 여러 쿠폰의 재고 차감량을 하나의 JDBC 배치로 반영한다. 쿠폰마다 재고가 차감량 이상인 경우에만 차감한다.
+     *
+     * @param deltas : couponId별 차감 수량
+     * @return : 재고가 부족하거나 존재하지 않아 차감하지 못한 couponId
+     */
+    @Transactional
+    Set<Long> decreaseStockAllIfAvailable(Map<Long, Long> deltas);
+}
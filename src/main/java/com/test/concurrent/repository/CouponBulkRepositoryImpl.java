@@ -0,0 +1,54 @@
+package com.test.concurrent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class CouponBulkRepositoryImpl implements CouponBulkRepository {
+    private static final String DECREASE_STOCK_SQL = "UPDATE coupon SET available_stock = available_stock - ? WHERE id = ?";
+    private static final String DECREASE_STOCK_IF_AVAILABLE_SQL = "UPDATE coupon SET available_stock = available_stock - ? WHERE id = ? AND available_stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void decreaseStockAll(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(deltas.entrySet());
+        jdbcTemplate.batchUpdate(DECREASE_STOCK_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+    }
+
+    @Override
+    public Set<Long> decreaseStockAllIfAvailable(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return Set.of();
+        }
+
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(deltas.entrySet());
+        int[][] updateCounts = jdbcTemplate.batchUpdate(DECREASE_STOCK_IF_AVAILABLE_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setLong(3, entry.getValue());
+        });
+
+        // 드라이버가 행 수를 알려주지 않는 경우(SUCCESS_NO_INFO)는 반영된 것으로 본다.
+        Set<Long> rejected = new HashSet<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (updateCounts[0][i] == 0) {
+                rejected.add(entries.get(i).getKey());
+            }
+        }
+        return rejected;
+    }
+}
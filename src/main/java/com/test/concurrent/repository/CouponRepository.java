@@ -9,7 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
-public interface CouponRepository extends JpaRepository<Coupon, Long> {
+public interface CouponRepository extends JpaRepository<Coupon, Long>, CouponBulkRepository {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT c FROM Coupon c WHERE c.id = :id")
     Optional<Coupon> findByIdWithPLock(Long id);
@@ -17,4 +17,29 @@ public interface CouponRepository extends JpaRepository<Coupon, Long> {
     @Modifying
     @Query("UPDATE Coupon c SET c.availableStock = c.availableStock - :count WHERE c.id = :couponId")
     void decreaseStock(Long couponId, int count);
+
+    @Modifying
+    @Query("UPDATE Coupon c SET c.availableStock = c.availableStock + :count WHERE c.id = :couponId")
+    void increaseStock(Long couponId, long count);
+
+    /**
+     * 재고가 count 이상인 경우에만 차감한다.
+     *
+     * @return : 변경된 행 수 (재고 부족 시 0)
+     */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.availableStock = c.availableStock - :count WHERE c.id = :couponId AND c.availableStock >= :count")
+    int decreaseStockIfAvailable(Long couponId, long count);
+
+    /**
+     * 재고가 있고, 전달된 펜싱 토큰이 마지막으로 기록된 토큰 이상인 경우에만 1개 차감한다.
+     * 락이 만료된 이전 보유자가 늦게 보낸 쓰기(더 작은 토큰)는 반영되지 않는다. <br/>
+     * 토큰은 락 key마다 따로 증가하므로, 한 쿠폰의 차감은 항상 같은 하나의 락 key로 보호해야 한다.
+     * 서로 다른 key의 토큰이 같은 행에 기록되면 크기 비교가 의미 없어져, 정상 쓰기가 거절되거나 만료된 쓰기가 반영될 수 있다.
+     *
+     * @return : 변경된 행 수 (재고 부족 또는 토큰 만료 시 0)
+     */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.availableStock = c.availableStock - 1, c.fencingToken = :token WHERE c.id = :couponId AND c.availableStock >= 1 AND c.fencingToken <= :token")
+    int decreaseStockWithFencingToken(Long couponId, long token);
 }
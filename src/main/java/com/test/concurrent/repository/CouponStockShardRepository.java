@@ -0,0 +1,22 @@
+package com.test.concurrent.repository;
+
+import com.test.concurrent.domain.CouponStockShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface CouponStockShardRepository extends JpaRepository<CouponStockShard, Long> {
+    long countByCouponId(Long couponId);
+
+    /**
+     * 조각의 재고가 1 이상인 경우에만 차감한다.
+     *
+     * @return : 변경된 행 수 (재고 부족 시 0)
+     */
+    @Modifying
+    @Query("UPDATE CouponStockShard s SET s.availableStock = s.availableStock - 1 WHERE s.couponId = :couponId AND s.shardIndex = :shardIndex AND s.availableStock >= 1")
+    int decreaseStockIfAvailable(Long couponId, int shardIndex);
+
+    @Query("SELECT COALESCE(SUM(s.availableStock), 0) FROM CouponStockShard s WHERE s.couponId = :couponId")
+    long sumAvailableStock(Long couponId);
+}
@@ -12,4 +12,8 @@ public interface OptimisticCouponRepository extends JpaRepository<OptimisticCoup
     @Lock(LockModeType.OPTIMISTIC)
     @Query("SELECT c FROM OptimisticCoupon c WHERE c.id = :id")
     Optional<OptimisticCoupon> findByIdWithOLock(Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM OptimisticCoupon c WHERE c.id = :id")
+    Optional<OptimisticCoupon> findByIdWithPLock(Long id);
 }
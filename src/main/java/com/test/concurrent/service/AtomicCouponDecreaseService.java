@@ -1,39 +1,52 @@
 package com.test.concurrent.service;
 
+import com.test.concurrent.common.GcraRateLimiter;
 import com.test.concurrent.domain.AtomicCoupon;
 import com.test.concurrent.domain.OptimisticCoupon;
 import com.test.concurrent.repository.AtomicCouponRepository;
 import com.test.concurrent.repository.OptimisticCouponRepository;
-import jakarta.persistence.OptimisticLockException;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
-import java.util.concurrent.atomic.AtomicReference;
-
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AtomicCouponDecreaseService {
     private final AtomicCouponRepository atomicCouponRepository;
     private final OptimisticCouponRepository optimisticCouponRepository;
+    private final AtomicCouponStockRegistry atomicCouponStockRegistry;
+
+    /**
+     * 쿠폰별 초당 허용 요청 수 (DEFAULT: 10, 직전 요청으로부터 100ms 이내의 요청 거절)
+     */
+    @Value("${coupon.rate-limit.permits-per-second:10}")
+    private double permitsPerSecond;
+
+    /**
+     * 쿠폰별 연속 허용 요청 수
+     */
+    @Value("${coupon.rate-limit.burst:1}")
+    private int burst;
+
+    private GcraRateLimiter<Long> rateLimiter;
 
-    private AtomicReference<LocalDateTime> lastUpdatedTime = new AtomicReference<>(LocalDateTime.now().minusSeconds(100L));
+    @PostConstruct
+    public void init() {
+        rateLimiter = new GcraRateLimiter<>(permitsPerSecond, burst);
+    }
 
     @Transactional
     public void decreaseStock(Long couponId) {
-        LocalDateTime now = LocalDateTime.now();
-
-        if (Duration.between(lastUpdatedTime.get(), now).toMillis() < 100L) {
+        if (!rateLimiter.tryAcquire(couponId)) {
             throw new IllegalStateException("중복 요청 방지");
         }
-
-        if (!lastUpdatedTime.compareAndSet(lastUpdatedTime.get(), now)) {
-            throw new IllegalStateException("동시 요청 감지");
+        if (atomicCouponStockRegistry.isManaged(couponId)) {
+            // 레지스트리 카운터가 모르는 DB 차감이 생기면 카운터 기준으로 초과 발급된다.
+            throw new IllegalStateException("카운터로 재고를 관리 중인 쿠폰은 DB에서 직접 차감할 수 없습니다.");
         }
 
         AtomicCoupon coupon = atomicCouponRepository.findById(couponId)
@@ -42,6 +55,16 @@ public class AtomicCouponDecreaseService {
         coupon.decreaseStock();
     }
 
+    /**
+     * 요청 간에 공유되는 {@link AtomicCouponStockRegistry}의 카운터에서 락 없이 재고를 차감한다.
+     * 차감량은 레지스트리가 주기적으로 DB에 반영한다. 이 방식으로 차감한 쿠폰은 {@link #decreaseStock(Long)}로 차감할 수 없다.
+     */
+    public void decreaseStockWithCounter(Long couponId) {
+        if (!atomicCouponStockRegistry.tryDecrease(couponId)) {
+            throw new IllegalArgumentException("재고가 부족합니다.");
+        }
+    }
+
     @Transactional
     public void decreaseStockOLockWithCAS(Long couponId) {
         OptimisticCoupon coupon = optimisticCouponRepository.findByIdWithOLock(couponId)
@@ -49,4 +72,15 @@ public class AtomicCouponDecreaseService {
 
         coupon.decreaseStock();
     }
+
+    /**
+     * 충돌이 잦은 쿠폰에 대해 재시도 대신 행 락을 잡고 차감한다.
+     */
+    @Transactional
+    public void decreaseStockOLockWithPLock(Long couponId) {
+        OptimisticCoupon coupon = optimisticCouponRepository.findByIdWithPLock(couponId)
+                .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+        coupon.decreaseStock();
+    }
 }
@@ -0,0 +1,86 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.WriteBehindStockCounter;
+import com.test.concurrent.domain.AtomicCoupon;
+import com.test.concurrent.repository.AtomicCouponRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link AtomicCoupon}의 재고를 요청 간에 공유되는 {@link AtomicLong} 카운터로 관리하는 레지스트리
+ * <p>
+ * - 차감과 반영은 {@link WriteBehindStockCounter}가 처리하며, 미반영 차감량은 하나의 트랜잭션으로 반영한다. <br/>
+ * - 단일 노드 전용이다. 여러 인스턴스가 같은 쿠폰을 처리하면 각자 재고를 들고 있게 되어 초과 발급이 발생한다. <br/>
+ * - 레지스트리가 재고를 읽어온 쿠폰은 {@link AtomicCouponDecreaseService#decreaseStock(Long)}처럼 DB에서 직접 차감하면 안 된다.
+ *   {@link #isManaged(Long)}로 확인해 거절한다.
+ * <p>
+ * 내구성 <br/>
+ * - 정상 종료 시 {@link #close()}에서 남은 차감량을 모두 반영하며, 반영에 실패한 차감량은 다음 주기에 재시도한다. <br/>
+ * - 프로세스가 비정상 종료되면 마지막 반영 이후의 차감량(쿠폰당 최대 flushThreshold개, 최대 flushIntervalMillis 동안)이 유실된다.
+ */
+@Component
+public class AtomicCouponStockRegistry {
+    private final WriteBehindStockCounter<Long> counter;
+
+    public AtomicCouponStockRegistry(
+            AtomicCouponRepository atomicCouponRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${coupon.atomic.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${coupon.atomic.flush-threshold:500}") long flushThreshold
+    ) {
+        this.counter = new WriteBehindStockCounter<>(
+                "Atomic 쿠폰 재고",
+                couponId -> atomicCouponRepository.findById(couponId)
+                        .map(coupon -> coupon.getAvailableStock().get())
+                        .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다.")),
+                deltas -> transactionTemplate.executeWithoutResult(status -> deltas.forEach(atomicCouponRepository::decreaseStock)),
+                flushIntervalMillis,
+                flushThreshold
+        );
+    }
+
+    @PostConstruct
+    public void init() {
+        counter.start();
+    }
+
+    /**
+     * 쿠폰 재고를 1개 차감한다. 재고가 0이면 차감하지 않는다.
+     *
+     * @return : 차감 성공 여부
+     */
+    public boolean tryDecrease(Long couponId) {
+        return counter.tryDecrease(couponId);
+    }
+
+    /**
+     * 레지스트리가 알고 있는 잔여 재고 (DB 반영 여부와 무관)
+     */
+    public long getAvailableStock(Long couponId) {
+        return counter.getAvailableStock(couponId);
+    }
+
+    /**
+     * 레지스트리가 쿠폰의 재고를 관리 중인지 여부
+     */
+    public boolean isManaged(Long couponId) {
+        return counter.isLoaded(couponId);
+    }
+
+    /**
+     * 미반영 차감량을 하나의 트랜잭션으로 DB에 반영한다.
+     */
+    public void flush() {
+        counter.flush();
+    }
+
+    @PreDestroy
+    public void close() {
+        counter.close();
+    }
+}
@@ -1,29 +1,57 @@
 package com.test.concurrent.service;
 
+import com.test.concurrent.common.KeyedSerialExecutor;
 import com.test.concurrent.domain.Coupon;
 import com.test.concurrent.repository.CouponRepository;
 import jakarta.annotation.PreDestroy;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CompletableFutureCouponDecreaseService {
     private final CouponRepository couponRepository;
-    private final ExecutorService executorService = Executors.newFixedThreadPool(
-            Runtime.getRuntime().availableProcessors()
-    );
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executorService;
+    private final KeyedSerialExecutor<Long> keyedExecutor;
+
+    /**
+     * DB 커넥션 풀 크기만큼만 동시에 DB 작업을 수행하도록 제한하는 벌크헤드.
+     * 가상 스레드는 사실상 무제한으로 생성되므로, 제한이 없으면 커넥션을 기다리는 스레드가 커넥션 풀 타임아웃으로 실패한다.
+     */
+    private final Semaphore bulkhead;
+    private final long bulkheadTimeoutMillis;
+
+    public CompletableFutureCouponDecreaseService(
+            CouponRepository couponRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${coupon.async.executor:PLATFORM}") ExecutorType executorType,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${coupon.async.bulkhead-timeout-ms:30000}") long bulkheadTimeoutMillis
+    ) {
+        this.couponRepository = couponRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.executorService = switch (executorType) {
+            case PLATFORM -> Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+        };
+        this.keyedExecutor = new KeyedSerialExecutor<>(executorService);
+        this.bulkhead = new Semaphore(maximumPoolSize);
+        this.bulkheadTimeoutMillis = bulkheadTimeoutMillis;
+    }
 
     public CompletableFuture<Void> decreaseStockWithCompletableFuture(Long couponId) {
         return CompletableFuture.runAsync(() -> {
             log.info("쿠폰 차감을 시작합니다. couponId={}", couponId);
+            acquireBulkhead();
             try {
                 Coupon coupon = couponRepository.findById(couponId)
                         .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
@@ -33,12 +61,61 @@ public class CompletableFutureCouponDecreaseService {
             } catch (Exception e) {
                 log.error("쿠폰 차감 중 에러 발생", e);
                 throw e;
+            } finally {
+                bulkhead.release();
             }
         }, executorService);
     }
 
+    /**
+     * 같은 쿠폰에 대한 차감은 하나씩 순서대로, 다른 쿠폰에 대한 차감은 병렬로 실행한다.
+     * 같은 쿠폰의 작업이 동시에 실행되지 않으므로 락 없이도 갱신 손실이 발생하지 않는다. (단일 인스턴스 기준)
+     */
+    public CompletableFuture<Void> decreaseStockWithKeyedExecutor(Long couponId) {
+        return keyedExecutor.submit(couponId, () -> {
+            log.info("쿠폰 차감을 시작합니다. couponId={}", couponId);
+            acquireBulkhead();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Coupon coupon = couponRepository.findById(couponId)
+                            .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+                    coupon.decreaseStock();
+                });
+                log.info("쿠폰 차감을 완료했습니다. couponId={}", couponId);
+                return null;
+            } catch (Exception e) {
+                log.error("쿠폰 차감 중 에러 발생", e);
+                throw e;
+            } finally {
+                bulkhead.release();
+            }
+        });
+    }
+
+    private void acquireBulkhead() {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("DB 작업 대기 시간을 초과했습니다.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("DB 작업 대기 중 인터럽트가 발생했습니다.", e);
+        }
+    }
+
     @PreDestroy
     public void shutdown() {
         executorService.shutdownNow();
     }
+
+    /**
+     * 비동기 작업을 실행할 스레드 종류
+     * <p>
+     * - PLATFORM : CPU 코어 수만큼의 플랫폼 스레드 풀 <br/>
+     * - VIRTUAL : 작업마다 가상 스레드를 생성 (동시 실행 수는 bulkhead로 제한)
+     */
+    public enum ExecutorType {
+        PLATFORM,
+        VIRTUAL
+    }
 }
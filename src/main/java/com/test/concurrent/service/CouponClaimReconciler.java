@@ -0,0 +1,371 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.LuaScriptRegistry;
+import com.test.concurrent.repository.CouponRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * Redis 우선 발급 서비스가 쌓은 발급 내역({@code CLAIMS:couponId:key} Sorted Set)을 주기적으로 DB 재고에 반영한다.
+ * <p>
+ * 한 주기는 다음 순서로 실행된다. <br/>
+ * 1. SCAN으로 {@code CLAIMS:} 발급 내역 키와 이전 주기에서 남은 INFLIGHT 키를 찾는다. (KEYS는 Redis를 막으므로 사용하지 않는다.)
+ *    요청 접수용 {@code couponId:key} 키는 {@link CouponTransactionSaveService#saveAll(Long, String)}만 반영한다. <br/>
+ * 2. 키마다 최대 chunkSize개의 내역을 INFLIGHT 키로 옮긴다. 이전 주기의 INFLIGHT 키가 남아 있으면 새 내역을 옮기지 않고 그것을 다시 반영한다.
+ *    키별 작업은 concurrency개의 스레드에서 병렬로 실행된다. <br/>
+ * 3. 쿠폰별 차감량을 합쳐 하나의 JDBC 배치(조건부 UPDATE)로 반영하고, 반영된 쿠폰의 INFLIGHT 키를 지운다. <br/>
+ * <p>
+ * - DB 재고보다 많은 내역이 몰린 쿠폰은 이번 주기의 chunk를 반영하지 않고 {@code DEAD_LETTER:CLAIMS:couponId:key}로 옮긴다. (deadLetterCount)
+ *   재시도해도 성공할 수 없으므로 INFLIGHT 키에 남겨 키를 막거나 backlog에 포함하지 않으며, 운영자가 확인 후 처리한다. <br/>
+ * - 다음 주기까지의 간격은 남은 내역(backlog)에 따라 minIntervalMillis ~ intervalMillis 사이에서 조정된다. <br/>
+ * - 반영 주기는 {@link CouponTransactionSaveService#saveAll(Long, String)}과 동시에 실행되지 않는다.
+ *   커밋 이후 INFLIGHT 키를 지우기 전에 중단되면 해당 내역이 한 번 더 반영될 수 있다. (at-least-once)
+ */
+@Slf4j
+@Component
+public class CouponClaimReconciler {
+    static final String CLAIM_KEY_PREFIX = "CLAIMS:";
+    static final String DEAD_LETTER_KEY_PREFIX = "DEAD_LETTER:";
+    private static final String CLAIM_KEY_PATTERN = CLAIM_KEY_PREFIX + "*";
+    private static final String INFLIGHT_KEY_PATTERN = CouponTransactionSaveService.INFLIGHT_KEY_PREFIX + CLAIM_KEY_PATTERN;
+
+    /**
+     * INFLIGHT 키가 비어 있을 때만 발급 내역을 옮기고, {INFLIGHT 내역 수, 가장 오래된 요청 시각, 남은 수}를 반환하는 스크립트
+     * (scripts/claim-chunk-reconcile.lua)
+     */
+    private static final String CLAIM_CHUNK_SCRIPT = "claim-chunk-reconcile";
+
+    /**
+     * 반영하지 못한 INFLIGHT 내역을 dead letter 키로 옮기는 스크립트 (scripts/claim-chunk-dead-letter.lua)
+     */
+    private static final String DEAD_LETTER_SCRIPT = "claim-chunk-dead-letter";
+
+    private final CouponRepository couponRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CouponTransactionSaveService couponTransactionSaveService;
+    private final LuaScriptRegistry luaScriptRegistry;
+    private final long intervalMillis;
+    private final long minIntervalMillis;
+    private final long backlogThreshold;
+    private final int chunkSize;
+    private final long scanCount;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(); // 반영 주기 전담 스레드
+    private final ExecutorService drainExecutor; // 키별 INFLIGHT 이동 스레드
+
+    private final AtomicLong cycleCount = new AtomicLong();
+    private final AtomicLong reconciledCount = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+    private volatile long currentIntervalMillis;
+    private volatile long lastBacklog;
+    private volatile long lastLagMillis;
+    private volatile long maxLagMillis;
+    private volatile long lastCycleMillis;
+
+    public CouponClaimReconciler(
+            CouponRepository couponRepository,
+            RedisTemplate<String, String> redisTemplate,
+            CouponTransactionSaveService couponTransactionSaveService,
+            LuaScriptRegistry luaScriptRegistry,
+            @Value("${coupon.reconciler.interval-ms:1000}") long intervalMillis,
+            @Value("${coupon.reconciler.min-interval-ms:50}") long minIntervalMillis,
+            @Value("${coupon.reconciler.backlog-threshold:500}") long backlogThreshold,
+            @Value("${coupon.reconciler.concurrency:4}") int concurrency,
+            @Value("${coupon.reconciler.scan-count:1000}") long scanCount,
+            @Value("${coupon.drain.chunk-size:500}") int chunkSize
+    ) {
+        if (minIntervalMillis < 1 || minIntervalMillis > intervalMillis) {
+            throw new IllegalArgumentException("최소 반영 간격은 1 이상, 반영 간격 이하여야 합니다.");
+        }
+        if (backlogThreshold < 1 || concurrency < 1 || scanCount < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("backlog 기준, 동시 실행 수, SCAN 개수, chunk 크기는 1 이상이어야 합니다.");
+        }
+        this.couponRepository = couponRepository;
+        this.redisTemplate = redisTemplate;
+        this.couponTransactionSaveService = couponTransactionSaveService;
+        this.luaScriptRegistry = luaScriptRegistry;
+        this.intervalMillis = intervalMillis;
+        this.minIntervalMillis = minIntervalMillis;
+        this.backlogThreshold = backlogThreshold;
+        this.scanCount = scanCount;
+        this.chunkSize = chunkSize;
+        this.drainExecutor = Executors.newFixedThreadPool(concurrency);
+        this.currentIntervalMillis = intervalMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        scheduler.schedule(this::runScheduledCycle, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Redis 우선 발급 서비스가 발급 내역을 기록할 키
+     */
+    static String claimKey(Long couponId, String key) {
+        return CLAIM_KEY_PREFIX + couponId + ":" + key;
+    }
+
+    /**
+     * 남은 발급 내역이 없을 때까지 반영 주기를 반복한다.
+     * DB 재고가 부족해 반영하지 못한 내역만 남으면 멈춘다.
+     *
+     * @return : 반영한 발급 내역 수
+     */
+    public long reconcileAll() {
+        long total = 0;
+        CycleResult result;
+        do {
+            result = reconcileOnce();
+            total += result.reconciled();
+        } while (result.reconciled() > 0 && result.backlog() > 0);
+        return total;
+    }
+
+    /**
+     * 반영 주기를 한 번 실행한다.
+     */
+    public CycleResult reconcileOnce() {
+        return couponTransactionSaveService.drainExclusively(this::runCycle);
+    }
+
+    private CycleResult runCycle() {
+        long start = System.currentTimeMillis();
+
+        List<ClaimChunk> chunks = claimChunks(scanClaimKeys());
+
+        Map<Long, Long> deltas = new HashMap<>();
+        long backlog = 0;
+        long oldest = Long.MAX_VALUE;
+        for (ClaimChunk chunk : chunks) {
+            backlog += chunk.remaining();
+            if (chunk.count() > 0) {
+                deltas.merge(chunk.couponId(), chunk.count(), Long::sum);
+                oldest = Math.min(oldest, chunk.oldestClaimedAt());
+            }
+        }
+
+        Set<Long> rejected = couponRepository.decreaseStockAllIfAvailable(deltas);
+
+        long reconciled = 0;
+        List<String> appliedKeys = new ArrayList<>();
+        for (ClaimChunk chunk : chunks) {
+            if (chunk.count() == 0) {
+                continue;
+            }
+            if (rejected.contains(chunk.couponId())) {
+                deadLetterCount.addAndGet(moveToDeadLetter(chunk));
+                continue;
+            }
+            reconciled += chunk.count();
+            appliedKeys.add(chunk.inflightKey());
+        }
+        if (!appliedKeys.isEmpty()) {
+            redisTemplate.delete(appliedKeys);
+        }
+        if (!rejected.isEmpty()) {
+            log.error("재고가 부족해 반영하지 못한 발급 내역을 dead letter로 옮겼습니다. couponIds={}", rejected);
+        }
+
+        long now = System.currentTimeMillis();
+        long lag = oldest == Long.MAX_VALUE ? 0L : Math.max(0L, now - oldest);
+        cycleCount.incrementAndGet();
+        reconciledCount.addAndGet(reconciled);
+        lastBacklog = backlog;
+        lastLagMillis = lag;
+        maxLagMillis = Math.max(maxLagMillis, lag);
+        lastCycleMillis = now - start;
+        currentIntervalMillis = nextIntervalMillis(reconciled + backlog);
+
+        if (reconciled > 0) {
+            log.info("발급 내역 반영 완료 (coupons={}, size={}, backlog={}, lag={}ms)", deltas.size(), reconciled, backlog, lag);
+        }
+        return new CycleResult(reconciled, backlog, lag);
+    }
+
+    /**
+     * 발급 내역 키와 남은 INFLIGHT 키를 SCAN으로 찾는다.
+     */
+    private Set<ClaimKey> scanClaimKeys() {
+        Set<ClaimKey> claimKeys = new HashSet<>();
+        scan(CLAIM_KEY_PATTERN, key -> key, claimKeys);
+        scan(INFLIGHT_KEY_PATTERN, key -> key.substring(CouponTransactionSaveService.INFLIGHT_KEY_PREFIX.length()), claimKeys);
+        return claimKeys;
+    }
+
+    private void scan(String pattern, UnaryOperator<String> toClaimKey, Set<ClaimKey> claimKeys) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(scanCount).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                ClaimKey claimKey = ClaimKey.parse(toClaimKey.apply(cursor.next()));
+                if (claimKey != null) {
+                    claimKeys.add(claimKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * 키마다 INFLIGHT 키로 내역을 옮긴다. 실패한 키는 건너뛰고 다음 주기에 다시 시도한다.
+     */
+    private List<ClaimChunk> claimChunks(Set<ClaimKey> claimKeys) {
+        List<Callable<ClaimChunk>> tasks = new ArrayList<>(claimKeys.size());
+        for (ClaimKey claimKey : claimKeys) {
+            tasks.add(() -> claimChunk(claimKey));
+        }
+
+        List<ClaimChunk> chunks = new ArrayList<>(claimKeys.size());
+        try {
+            for (Future<ClaimChunk> future : drainExecutor.invokeAll(tasks)) {
+                try {
+                    chunks.add(future.get());
+                } catch (ExecutionException e) {
+                    log.error("발급 내역 이동 중 에러 발생", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("발급 내역 이동이 중단되었습니다.", e);
+        }
+        return chunks;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClaimChunk claimChunk(ClaimKey claimKey) {
+        String inflightKey = CouponTransactionSaveService.INFLIGHT_KEY_PREFIX + claimKey.key();
+        List<Long> result = luaScriptRegistry.execute(CLAIM_CHUNK_SCRIPT, List.class, List.of(claimKey.key(), inflightKey), String.valueOf(chunkSize));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("발급 내역 이동 결과가 올바르지 않습니다. key=" + claimKey.key());
+        }
+        return new ClaimChunk(claimKey.couponId(), claimKey.key(), inflightKey, result.get(0), result.get(1), result.get(2));
+    }
+
+    private long moveToDeadLetter(ClaimChunk chunk) {
+        Long moved = luaScriptRegistry.execute(DEAD_LETTER_SCRIPT, Long.class, List.of(chunk.inflightKey(), DEAD_LETTER_KEY_PREFIX + chunk.claimKey()));
+        return moved == null ? 0L : moved;
+    }
+
+    /**
+     * backlog가 backlogThreshold 이하이면 intervalMillis, 그보다 많으면 backlog에 반비례해 minIntervalMillis까지 줄인다.
+     */
+    private long nextIntervalMillis(long backlog) {
+        if (backlog <= backlogThreshold) {
+            return intervalMillis;
+        }
+        return Math.max(minIntervalMillis, intervalMillis * backlogThreshold / backlog);
+    }
+
+    private void runScheduledCycle() {
+        try {
+            reconcileOnce();
+        } catch (Exception e) {
+            log.error("발급 내역 반영 중 에러 발생", e);
+        } finally {
+            if (!scheduler.isShutdown()) {
+                scheduler.schedule(this::runScheduledCycle, currentIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    public long getCycleCount() {
+        return cycleCount.get();
+    }
+
+    /**
+     * DB에 반영된 발급 내역 수
+     */
+    public long getReconciledCount() {
+        return reconciledCount.get();
+    }
+
+    /**
+     * DB 재고가 부족해 반영하지 못하고 dead letter 키로 옮긴 발급 내역 수
+     */
+    public long getDeadLetterCount() {
+        return deadLetterCount.get();
+    }
+
+    /**
+     * 마지막 주기 이후 남은 발급 내역 수
+     */
+    public long getLastBacklog() {
+        return lastBacklog;
+    }
+
+    /**
+     * 마지막 주기에서 반영한 내역 중 가장 오래된 요청이 반영되기까지 걸린 시간 (ms)
+     */
+    public long getLastLagMillis() {
+        return lastLagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    /**
+     * 마지막 주기의 실행 시간 (ms)
+     */
+    public long getLastCycleMillis() {
+        return lastCycleMillis;
+    }
+
+    /**
+     * 다음 주기까지의 간격 (ms)
+     */
+    public long getCurrentIntervalMillis() {
+        return currentIntervalMillis;
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+        drainExecutor.shutdownNow();
+    }
+
+    /**
+     * @param reconciled : 반영한 발급 내역 수
+     * @param backlog    : 남은 발급 내역 수
+     * @param lagMillis  : 반영한 내역 중 가장 오래된 요청이 반영되기까지 걸린 시간 (ms)
+     */
+    public record CycleResult(long reconciled, long backlog, long lagMillis) {
+    }
+
+    private record ClaimKey(Long couponId, String key) {
+        private static ClaimKey parse(String key) {
+            int separator = key.indexOf(':', CLAIM_KEY_PREFIX.length());
+            if (!key.startsWith(CLAIM_KEY_PREFIX) || separator < 0) {
+                return null;
+            }
+            try {
+                return new ClaimKey(Long.parseLong(key.substring(CLAIM_KEY_PREFIX.length(), separator)), key);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private record ClaimChunk(Long couponId, String claimKey, String inflightKey, long count, long oldestClaimedAt, long remaining) {
+    }
+}
@@ -1,23 +1,46 @@
 package com.test.concurrent.service;
 
 import com.test.concurrent.aop.DistributedLock;
+import com.test.concurrent.aop.LockStrategy;
+import com.test.concurrent.common.LuaScriptRegistry;
 import com.test.concurrent.domain.Coupon;
 import com.test.concurrent.repository.CouponRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CouponDecreaseService {
+    /**
+     * 요청 수 한도 안에서 요청자를 기록하는 스크립트 (scripts/coupon-request-admission.lua)
+     */
+    private static final String ADMISSION_SCRIPT = "coupon-request-admission";
+
+    /**
+     * 요청자 묶음을 순서대로 한도 안에서 기록하는 스크립트 (scripts/coupon-request-admission-bulk.lua)
+     */
+    private static final String BULK_ADMISSION_SCRIPT = "coupon-request-admission-bulk";
+
+    private static final String MAX_REQUEST_COUNT = "1000";
+
+    /**
+     * 한 번의 스크립트 실행으로 접수할 최대 요청자 수. 스크립트가 실행되는 동안 Redis의 다른 명령이 대기하므로 묶음을 나눈다.
+     */
+    private static final int BULK_ADMISSION_BATCH_SIZE = 1000;
+
     private final CouponRepository couponRepository;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final CouponStockLedger couponStockLedger;
+    private final LuaScriptRegistry luaScriptRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
 
     @Transactional
     public void decreaseStock(Long couponId) {
@@ -35,6 +58,23 @@ public class CouponDecreaseService {
         couponRepository.save(coupon);
     }
 
+    /**
+     * {@link #decreaseStockWithSynchronized(Long)}와 동일하지만, synchronized 대신 {@link ReentrantLock}을 사용한다.
+     * synchronized 블록 안에서 I/O를 기다리는 가상 스레드는 캐리어 스레드를 점유(pinning)하므로, 가상 스레드 환경에서는 이 메서드를 사용한다.
+     */
+    public void decreaseStockWithReentrantLock(Long couponId) {
+        lock.lock();
+        try {
+            Coupon coupon = couponRepository.findById(couponId)
+                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+            coupon.decreaseStock();
+            couponRepository.save(coupon);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Transactional
     public void decreaseStockWithPLock(Long couponId) {
         Coupon coupon = couponRepository.findByIdWithPLock(couponId)
@@ -43,6 +83,17 @@ public class CouponDecreaseService {
         coupon.decreaseStock();
     }
 
+    /**
+     * 엔티티를 조회하지 않고, 재고 확인과 차감을 하나의 조건부 UPDATE로 처리한다.
+     * DB 행 락은 UPDATE 문이 실행되는 동안에만 유지되며, 애플리케이션 레벨의 락이 필요 없다.
+     */
+    @Transactional
+    public void decreaseStockWithConditionalUpdate(Long couponId) {
+        if (couponRepository.decreaseStockIfAvailable(couponId, 1L) == 0) {
+            throw new IllegalArgumentException("재고가 부족하거나 존재하지 않는 쿠폰입니다.");
+        }
+    }
+
     @DistributedLock(key = "#key")
     public void decreaseStockWithDistributedLock(Long couponId, String key) {
         Coupon coupon = couponRepository.findById(couponId)
@@ -51,24 +102,76 @@ public class CouponDecreaseService {
         coupon.decreaseStock();
     }
 
+    /**
+     * DB 대신 {@link CouponStockLedger}의 메모리 카운터에서 재고를 차감한다.
+     * 차감량은 원장이 백그라운드에서 DB에 반영한다.
+     */
+    public void decreaseStockWithLedger(Long couponId) {
+        if (!couponStockLedger.tryDecrease(couponId)) {
+            throw new IllegalArgumentException("재고가 부족합니다.");
+        }
+    }
+
+    @DistributedLock(key = "#key", localFirst = true)
+    public void decreaseStockWithTwoTierLock(Long couponId, String key) {
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+        coupon.decreaseStock();
+    }
+
+    /**
+     * 같은 쿠폰의 동시 요청을 락을 획득한 스레드가 모아서 하나의 트랜잭션으로 처리한다.
+     * 같은 영속성 컨텍스트에서 같은 엔티티를 차감하므로, 묶음마다 UPDATE는 한 번만 실행된다.
+     */
+    @DistributedLock(key = "#key", combining = true)
+    public void decreaseStockWithCombiningLock(Long couponId, String key) {
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+        coupon.decreaseStock();
+    }
+
+    /**
+     * 재고 조회는 읽기 락을 공유하므로, 차감(쓰기 락)이 진행 중이지 않은 동안에는 서로 대기하지 않는다.
+     */
+    @DistributedLock(key = "#key", strategy = LockStrategy.READ)
+    public long getAvailableStockWithReadLock(Long couponId, String key) {
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+        return coupon.getAvailableStock();
+    }
+
+    @DistributedLock(key = "#key", strategy = LockStrategy.WRITE)
+    public void decreaseStockWithWriteLock(Long couponId, String key) {
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+        coupon.decreaseStock();
+    }
+
+    /**
+     * 여러 쿠폰을 묶음으로 1개씩 차감한다. 모든 쿠폰의 락을 정렬된 순서로 한 번에 획득하므로,
+     * 겹치는 묶음을 다른 순서로 요청해도 교착 상태가 발생하지 않는다.
+     */
+    @DistributedLock(keys = "#couponIds")
+    public void decreaseStocksWithMultiLock(List<Long> couponIds) {
+        for (Long couponId : couponIds) {
+            Coupon coupon = couponRepository.findById(couponId)
+                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+            coupon.decreaseStock();
+        }
+    }
+
     public boolean registerCouponRequest(Long couponId, String key) {
         String threadId = String.valueOf(Thread.currentThread().getId());
-        String maxRequestCount = "1000";
-
-        String luaScript =
-                "local count = redis.call('ZCARD', KEYS[1]) " +
-                        "if count < tonumber(ARGV[2]) then " +
-                        "    redis.call('ZADD', KEYS[1], tonumber(ARGV[3]), ARGV[1]) " +
-                        "    return 1 " +
-                        "else " +
-                        "    return 0 " +
-                        "end";
-
-        RedisScript<Long> script = RedisScript.of(luaScript, Long.class);
-        Long result = redisTemplate.execute(script,
+
+        Long result = luaScriptRegistry.execute(ADMISSION_SCRIPT, Long.class,
                 Collections.singletonList(couponId + ":" + key),
                 threadId,
-                maxRequestCount,
+                MAX_REQUEST_COUNT,
                 String.valueOf(System.currentTimeMillis())
         );
 
@@ -80,4 +183,40 @@ public class CouponDecreaseService {
             return false;
         }
     }
+
+    /**
+     * {@link #registerCouponRequest(Long, String)}의 묶음 버전. 요청자 순서대로 요청 한도에 도달할 때까지 등록한다.
+     * 요청자 {@value #BULK_ADMISSION_BATCH_SIZE}명당 Redis 왕복은 한 번이다.
+     *
+     * @param requesterIds : 요청자 ID 목록
+     * @return : i번째 비트가 켜져 있으면 requesterIds의 i번째 요청자가 등록됨
+     */
+    public BitSet registerCouponRequests(Long couponId, String key, List<Long> requesterIds) {
+        BitSet admitted = new BitSet(requesterIds.size());
+        List<String> keys = Collections.singletonList(couponId + ":" + key);
+
+        for (int from = 0; from < requesterIds.size(); from += BULK_ADMISSION_BATCH_SIZE) {
+            List<Long> batch = requesterIds.subList(from, Math.min(from + BULK_ADMISSION_BATCH_SIZE, requesterIds.size()));
+
+            Object[] args = new Object[batch.size() + 2];
+            args[0] = MAX_REQUEST_COUNT;
+            args[1] = String.valueOf(System.currentTimeMillis());
+            for (int i = 0; i < batch.size(); i++) {
+                args[i + 2] = String.valueOf(batch.get(i));
+            }
+
+            String result = luaScriptRegistry.execute(BULK_ADMISSION_SCRIPT, String.class, keys, args);
+            if (result == null || result.length() != batch.size()) {
+                throw new IllegalStateException("요청 묶음 등록 결과가 올바르지 않습니다.");
+            }
+            for (int i = 0; i < result.length(); i++) {
+                if (result.charAt(i) == '1') {
+                    admitted.set(from + i);
+                }
+            }
+        }
+
+        log.info("쿠폰 {} 요청 묶음 등록 (요청: {}, 등록: {})", couponId, requesterIds.size(), admitted.cardinality());
+        return admitted;
+    }
 }
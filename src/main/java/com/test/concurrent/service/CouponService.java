@@ -1,12 +1,16 @@
 package com.test.concurrent.service;
 
+import com.test.concurrent.common.ContentionTracker;
+import com.test.concurrent.common.KeyedLockManager;
+import com.test.concurrent.common.RetryPolicy;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -14,52 +18,139 @@ public class CouponService {
     private final CouponDecreaseService couponDecreaseService;
     private final AtomicCouponDecreaseService atomicCouponDecreaseService;
 
-    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 쿠폰별 락 관리 방식 (PER_KEY, STRIPED)
+     */
+    @Value("${coupon.local-lock.mode:PER_KEY}")
+    private KeyedLockManager.Mode lockMode;
 
+    /**
+     * STRIPED 방식의 락 개수 (2의 거듭제곱)
+     */
+    @Value("${coupon.local-lock.stripes:64}")
+    private int lockStripes;
+
+    /**
+     * 공정 락 사용 여부. 대기 순서대로 획득하는 대신 처리량이 떨어진다.
+     */
+    @Value("${coupon.local-lock.fair:false}")
+    private boolean lockFair;
+
+    /**
+     * 쿠폰 락 획득 대기 시간 (ms). 0 이하면 락을 얻을 때까지 기다린다. <br/>
+     * 같은 쿠폰의 요청은 모두 한 줄로 처리되므로, 양수로 지정할 때는 (동시 요청 수 x 요청당 처리 시간)보다 길어야 한다.
+     */
+    @Value("${coupon.local-lock.timeout-ms:0}")
+    private long lockTimeoutMillis;
+
+    /**
+     * 재시도 전 최소/최대 대기 시간 (ms)
+     */
+    @Value("${coupon.retry.base-delay-ms:5}")
+    private long retryBaseDelayMillis;
+    @Value("${coupon.retry.max-delay-ms:200}")
+    private long retryMaxDelayMillis;
+
+    /**
+     * 호출당 최대 시도 횟수
+     */
+    @Value("${coupon.retry.max-attempts:100}")
+    private int retryMaxAttempts;
+
+    /**
+     * 요청당 적립되는 재시도 예산과 최대 적립량
+     */
+    @Value("${coupon.retry.budget-ratio:0.5}")
+    private double retryBudgetRatio;
+    @Value("${coupon.retry.budget-capacity:1000}")
+    private long retryBudgetCapacity;
+
+    /**
+     * 비관적 락으로 전환할 쿠폰별 낙관적 락 충돌률과, 전환 후 유지 시간 (ms)
+     */
+    @Value("${coupon.contention.escalate-threshold:0.5}")
+    private double escalateThreshold;
+    @Value("${coupon.contention.cooldown-ms:1000}")
+    private long contentionCooldownMillis;
+
+    private KeyedLockManager<Long> couponLocks;
+    private RetryPolicy atomicRetryPolicy;
+    private RetryPolicy optimisticRetryPolicy;
+    private ContentionTracker<Long> contentionTracker;
+
+    @PostConstruct
+    public void init() {
+        couponLocks = new KeyedLockManager<>(lockMode, lockStripes, lockFair);
+        atomicRetryPolicy = createRetryPolicy();
+        optimisticRetryPolicy = createRetryPolicy();
+        contentionTracker = new ContentionTracker<>(escalateThreshold, contentionCooldownMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private RetryPolicy createRetryPolicy() {
+        return new RetryPolicy(retryBaseDelayMillis, retryMaxDelayMillis, TimeUnit.MILLISECONDS, retryMaxAttempts, retryBudgetRatio, retryBudgetCapacity);
+    }
+
+    /**
+     * 서비스 인스턴스 전체가 하나의 모니터를 사용하므로, 서로 다른 쿠폰의 요청도 모두 순서대로 처리된다.
+     */
     public synchronized void decreaseStockWithSynchronized(Long couponId) {
         couponDecreaseService.decreaseStock(couponId);
     }
 
+    /**
+     * 쿠폰별 락으로 같은 쿠폰의 요청만 순서대로 처리하고, 다른 쿠폰의 요청은 병렬로 처리한다.
+     * {@link #decreaseStockWithSynchronized(Long)}와 달리 가상 스레드의 캐리어 스레드를 점유(pinning)하지 않는다.
+     */
     public void decreaseStockWithReentrantLock(Long couponId) {
-        lock.lock();
-        try {
-            couponDecreaseService.decreaseStock(couponId);
-        } finally {
-            lock.unlock();
+        if (lockTimeoutMillis <= 0) {
+            couponLocks.executeWithLock(couponId, () -> {
+                couponDecreaseService.decreaseStock(couponId);
+                return null;
+            });
+            return;
         }
-    }
 
-    public void decreaseStockWithAtomic(Long couponId) {
-        for (int attempt = 0; attempt < 100000; attempt++) {
-            try {
-                atomicCouponDecreaseService.decreaseStock(couponId);
-                return;
-            } catch (IllegalArgumentException e) {
-                try {
-                    Thread.sleep(ThreadLocalRandom.current().nextInt(100, 1000));
-                } catch (InterruptedException interruptedException) {
-                    Thread.currentThread().interrupt();
-                }
+        try {
+            if (!couponLocks.tryExecuteWithLock(couponId, lockTimeoutMillis, TimeUnit.MILLISECONDS, () -> couponDecreaseService.decreaseStock(couponId))) {
+                throw new IllegalStateException("쿠폰 락 획득 시간 초과");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("쿠폰 락 대기 중 인터럽트 발생", e);
         }
+    }
 
-        throw new IllegalStateException("재시도 횟수 초과");
+    public void decreaseStockWithAtomic(Long couponId) {
+        atomicRetryPolicy.execute(
+                () -> atomicCouponDecreaseService.decreaseStock(couponId),
+                e -> e instanceof IllegalArgumentException
+        );
     }
 
+    /**
+     * 낙관적 락 충돌 시 백오프 후 재시도한다. 쿠폰의 충돌률이 임계값을 넘으면 일정 시간 동안 비관적 락으로 전환해 재시도 없이 처리한다.
+     */
     public void decreaseStockWithOLockAndCAS(Long couponId) {
-        for (int attempt = 0; attempt < 100; attempt++) {
+        optimisticRetryPolicy.execute(() -> {
+            if (contentionTracker.isContended(couponId)) {
+                atomicCouponDecreaseService.decreaseStockOLockWithPLock(couponId);
+                return;
+            }
+
             try {
                 atomicCouponDecreaseService.decreaseStockOLockWithCAS(couponId);
-                return;
+                contentionTracker.recordSuccess(couponId);
             } catch (ObjectOptimisticLockingFailureException | OptimisticLockException e) {
-                try {
-                    Thread.sleep(ThreadLocalRandom.current().nextInt(10, 100));
-                } catch (InterruptedException interruptedException) {
-                    Thread.currentThread().interrupt();
-                }
+                contentionTracker.recordConflict(couponId);
+                throw e;
             }
-        }
+        }, e -> e instanceof ObjectOptimisticLockingFailureException || e instanceof OptimisticLockException);
+    }
 
-        throw new IllegalStateException("재시도 횟수 초과");
+    /**
+     * {@link #decreaseStockWithOLockAndCAS(Long)}에서 쿠폰이 비관적 락으로 전환된 누적 횟수
+     */
+    public int getContentionEscalationCount(Long couponId) {
+        return contentionTracker.getEscalationCount(couponId);
     }
 }
@@ -0,0 +1,84 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.WriteBehindStockCounter;
+import com.test.concurrent.domain.Coupon;
+import com.test.concurrent.repository.CouponRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 쿠폰 재고를 메모리에서 차감하고, 누적된 차감량을 백그라운드에서 DB에 반영(write-behind)하는 재고 원장
+ * <p>
+ * - 차감과 반영은 {@link WriteBehindStockCounter}가 처리하며, 미반영 차감량은 하나의 JDBC 배치로 반영한다. <br/>
+ * - 단일 노드 전용이다. 여러 인스턴스가 같은 쿠폰을 원장으로 처리하면 각자 재고를 들고 있게 되어 초과 발급이 발생한다. <br/>
+ * - 원장으로 차감하는 쿠폰은 다른 차감 방식과 함께 사용하면 안 된다. 원장이 재고를 읽어온 뒤의 DB 차감은 원장에 반영되지 않는다.
+ * <p>
+ * 장애 복구 <br/>
+ * - 정상 종료 시 {@link #close()}에서 남은 차감량을 모두 반영한다. <br/>
+ * - flush가 실패하면 차감량을 카운터에 되돌려 다음 주기에 재시도한다. <br/>
+ * - 프로세스가 비정상 종료되면 마지막 flush 이후의 차감량(쿠폰당 최대 flushThreshold개, 최대 flushIntervalMillis 동안)이 유실된다.
+ *   재기동 후 원장은 DB 값을 다시 읽어오므로, 유실 범위만큼 재발급될 수 있다. 허용 가능한 유실 범위에 맞춰 두 값을 조정해야 한다.
+ */
+@Component
+public class CouponStockLedger {
+    private final WriteBehindStockCounter<Long> counter;
+
+    public CouponStockLedger(
+            CouponRepository couponRepository,
+            @Value("${coupon.ledger.flush-interval-ms:200}") long flushIntervalMillis,
+            @Value("${coupon.ledger.flush-threshold:500}") long flushThreshold
+    ) {
+        this.counter = new WriteBehindStockCounter<>(
+                "재고 원장",
+                couponId -> couponRepository.findById(couponId)
+                        .map(Coupon::getAvailableStock)
+                        .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다.")),
+                couponRepository::decreaseStockAll,
+                flushIntervalMillis,
+                flushThreshold
+        );
+    }
+
+    @PostConstruct
+    public void init() {
+        counter.start();
+    }
+
+    /**
+     * 쿠폰 재고를 1개 차감한다. 재고가 0이면 차감하지 않는다.
+     *
+     * @return : 차감 성공 여부
+     */
+    public boolean tryDecrease(Long couponId) {
+        return counter.tryDecrease(couponId);
+    }
+
+    /**
+     * 원장이 알고 있는 잔여 재고 (DB 반영 여부와 무관)
+     */
+    public long getAvailableStock(Long couponId) {
+        return counter.getAvailableStock(couponId);
+    }
+
+    /**
+     * 미반영 차감량을 하나의 배치로 DB에 반영한다.
+     */
+    public void flush() {
+        counter.flush();
+    }
+
+    /**
+     * 원장에서 쿠폰을 제거한다. 제거 전 미반영 차감량을 반영하며, 이후 요청 시 DB에서 재고를 다시 읽어온다. <br/>
+     * 해당 쿠폰의 차감 요청이 멈춘 뒤(판매 종료 등)에 호출해야 한다.
+     */
+    public void evict(Long couponId) {
+        counter.evict(couponId);
+    }
+
+    @PreDestroy
+    public void close() {
+        counter.close();
+    }
+}
@@ -1,6 +1,9 @@
 package com.test.concurrent.service;
 
 import com.test.concurrent.aop.DistributedLock;
+import com.test.concurrent.aop.FencingTokenHolder;
+import com.test.concurrent.aop.LeaseMode;
+import com.test.concurrent.aop.LockStrategy;
 import com.test.concurrent.domain.Coupon;
 import com.test.concurrent.repository.CouponRepository;
 import lombok.RequiredArgsConstructor;
@@ -38,4 +41,27 @@ public class CouponTooLongTimeDecreaseService {
 
         coupon.decreaseStock();
     }
+
+    /**
+     * {@link #mustFailRun(Long)}과 같은 작업을 워치독 임대로 실행한다. 작업이 끝날 때까지 락이 연장되며,
+     * 차감은 펜싱 토큰을 함께 기록하는 조건부 UPDATE로 처리해 락을 잃은 뒤의 쓰기를 거절한다.
+     */
+    @DistributedLock(key = "'like_' + #couponId", waitTime = 15L, strategy = LockStrategy.FENCED, leaseMode = LeaseMode.WATCHDOG)
+    public void runWithFencing(Long couponId) {
+        long token = FencingTokenHolder.get();
+
+        // 10초 대기 (워치독의 기본 TTL보다 오래 걸림)
+        try {
+            log.info("Sleeping for 10 seconds... (fencing token: {})", token);
+            Thread.sleep(10000);
+            log.info("Woke up after sleep");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Thread interrupted", e);
+        }
+
+        if (couponRepository.decreaseStockWithFencingToken(couponId, token) == 0) {
+            throw new IllegalStateException("재고가 부족하거나 만료된 펜싱 토큰입니다. token=" + token);
+        }
+    }
 }
@@ -1,36 +1,119 @@
 package com.test.concurrent.service;
 
+import com.test.concurrent.common.KeyedLockManager;
+import com.test.concurrent.common.LuaScriptRegistry;
 import com.test.concurrent.repository.CouponRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
+/**
+ * {@code couponId:key} Sorted Set에 쌓인 발급 내역을 DB 재고에 반영한다.
+ * <p>
+ * - 발급 내역은 chunkSize개씩 INFLIGHT 키로 옮기며 꺼내고, chunk마다 하나의 짧은 트랜잭션으로 반영한 뒤 INFLIGHT 키를 지운다.
+ *   내역의 크기와 관계없이 메모리 사용량이 일정하며, 반영 중에 추가된 내역은 다음 chunk로 함께 반영된다. <br/>
+ * - 반영 전에 중단되면 INFLIGHT 키가 남고, 다음 실행에서 먼저 반영한다. (at-least-once)
+ *   커밋 이후 INFLIGHT 키를 지우기 전에 중단된 경우에만 해당 chunk가 한 번 더 반영될 수 있다. <br/>
+ * - 요청 접수 키와 INFLIGHT 키({@code INFLIGHT:couponId:key})는 {@link CouponClaimReconciler}의 {@code CLAIMS:} 키와 겹치지 않는다. <br/>
+ * - 같은 키의 반영은 이 인스턴스 안에서 순서대로 실행되며, {@link CouponClaimReconciler}의 반영 주기와도 겹치지 않는다.
+ *   여러 노드에서 같은 키를 반영하면 안 된다.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CouponTransactionSaveService {
-    private final CouponRepository couponRepository;
+    static final String INFLIGHT_KEY_PREFIX = "INFLIGHT:";
+
+    /**
+     * 발급 내역을 chunk 단위로 INFLIGHT 키로 옮기는 스크립트 (scripts/claim-chunk-pop.lua)
+     */
+    private static final String POP_CHUNK_SCRIPT = "claim-chunk-pop";
 
+    private final CouponRepository couponRepository;
     private final RedisTemplate<String, String> redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LuaScriptRegistry luaScriptRegistry;
+    private final int chunkSize;
+
+    private final KeyedLockManager<String> drainLocks = new KeyedLockManager<>(KeyedLockManager.Mode.PER_KEY, 0, false);
+    private final ReentrantReadWriteLock drainLock = new ReentrantReadWriteLock(); // saveAll(읽기)과 반영 주기(쓰기)의 상호 배제
+
+    public CouponTransactionSaveService(
+            CouponRepository couponRepository,
+            RedisTemplate<String, String> redisTemplate,
+            TransactionTemplate transactionTemplate,
+            LuaScriptRegistry luaScriptRegistry,
+            @Value("${coupon.drain.chunk-size:500}") int chunkSize
+    ) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk 크기는 1 이상이어야 합니다.");
+        }
+        this.couponRepository = couponRepository;
+        this.redisTemplate = redisTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.luaScriptRegistry = luaScriptRegistry;
+        this.chunkSize = chunkSize;
+    }
 
-    @Transactional
-    public void saveAll(Long couponId, String suffix) {
+    /**
+     * 발급 내역을 모두 꺼내 DB 재고에 반영한다.
+     *
+     * @return : 반영한 발급 내역 수
+     */
+    public long saveAll(Long couponId, String suffix) {
         String key = couponId + ":" + suffix;
+        drainLock.readLock().lock();
+        try {
+            return drainLocks.executeWithLock(key, () -> drain(couponId, key));
+        } finally {
+            drainLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 진행 중인 saveAll이 끝나기를 기다린 뒤, 다른 saveAll 없이 body를 실행한다.
+     * {@link CouponClaimReconciler}가 INFLIGHT 키를 옮기고 지우는 동안 같은 키를 함께 반영하지 않도록 한다.
+     */
+    <T> T drainExclusively(Supplier<T> body) {
+        drainLock.writeLock().lock();
+        try {
+            return body.get();
+        } finally {
+            drainLock.writeLock().unlock();
+        }
+    }
 
-        ZSetOperations<String, String> command = redisTemplate.opsForZSet();
-        Set<String> tx = command.range(key, 0, -1);
-        Long sz = command.zCard(key);
+    private long drain(Long couponId, String key) {
+        String inflightKey = INFLIGHT_KEY_PREFIX + key;
+        long total = 0;
 
-        log.info("저장된 트랜잭션(size={}): {}", sz, tx);
+        // 이전 실행에서 반영하지 못한 chunk를 먼저 반영한다.
+        Long pending = redisTemplate.opsForZSet().zCard(inflightKey);
+        if (pending != null && pending > 0) {
+            log.info("쿠폰 {} 이전 chunk 재반영 (size={})", couponId, pending);
+            total += apply(couponId, inflightKey, pending);
+        }
 
-        if (sz != null)
-            couponRepository.decreaseStock(couponId, sz.intValue());
+        while (true) {
+            Long popped = luaScriptRegistry.execute(POP_CHUNK_SCRIPT, Long.class, List.of(key, inflightKey), String.valueOf(chunkSize));
+            if (popped == null || popped == 0) {
+                break;
+            }
+            total += apply(couponId, inflightKey, popped);
+        }
+
+        log.info("저장된 트랜잭션 반영 완료 (couponId={}, size={})", couponId, total);
+        return total;
+    }
 
-        redisTemplate.delete(key);
+    private long apply(Long couponId, String inflightKey, long count) {
+        transactionTemplate.executeWithoutResult(status -> couponRepository.decreaseStock(couponId, (int) count));
+        redisTemplate.delete(inflightKey);
+        return count;
     }
 }
@@ -0,0 +1,115 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.DecreaseRequestRingBuffer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 워커가 한 번에 처리할 차감 요청 묶음. 워커마다 하나를 만들어 재사용한다.
+ * <p>
+ * 쿠폰별 묶음은 미리 할당한 인덱스 배열을 couponId 순으로 정렬해 만든다. 묶음을 나누는 과정에서 객체를 생성하지 않는다.
+ */
+class DecreaseRequestBatch implements DecreaseRequestRingBuffer.Handler<CompletableFuture<IssueResult>> {
+    private final long[] couponIds;
+    private final long[] requesterIds;
+    private final CompletableFuture<IssueResult>[] completions;
+    private final int[] order; // couponId 순으로 정렬한 요청 인덱스
+    private final int[] sortBuffer;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    DecreaseRequestBatch(int capacity) {
+        this.couponIds = new long[capacity];
+        this.requesterIds = new long[capacity];
+        this.completions = new CompletableFuture[capacity];
+        this.order = new int[capacity];
+        this.sortBuffer = new int[capacity];
+    }
+
+    @Override
+    public void onRequest(long couponId, long requesterId, CompletableFuture<IssueResult> completion) {
+        add(couponId, requesterId, completion);
+    }
+
+    void add(long couponId, long requesterId, CompletableFuture<IssueResult> completion) {
+        couponIds[size] = couponId;
+        requesterIds[size] = requesterId;
+        completions[size] = completion;
+        size++;
+    }
+
+    long couponIdAt(int index) {
+        return couponIds[index];
+    }
+
+    long requesterIdAt(int index) {
+        return requesterIds[index];
+    }
+
+    CompletableFuture<IssueResult> completionAt(int index) {
+        return completions[index];
+    }
+
+    /**
+     * 요청 인덱스를 couponId 순으로 정렬한다. 같은 쿠폰의 요청은 도착 순서를 유지한다. (병합 정렬)
+     */
+    void sortByCouponId() {
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+
+        int[] from = order;
+        int[] to = sortBuffer;
+        for (int width = 1; width < size; width <<= 1) {
+            for (int left = 0; left < size; left += width << 1) {
+                int middle = Math.min(left + width, size);
+                int right = Math.min(left + (width << 1), size);
+                merge(from, to, left, middle, right);
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, size);
+        }
+    }
+
+    private void merge(int[] from, int[] to, int left, int middle, int right) {
+        int i = left;
+        int j = middle;
+        for (int k = left; k < right; k++) {
+            if (i < middle && (j >= right || couponIds[from[i]] <= couponIds[from[j]])) {
+                to[k] = from[i++];
+            } else {
+                to[k] = from[j++];
+            }
+        }
+    }
+
+    /**
+     * {@link #sortByCouponId()}로 정렬한 position번째 요청의 인덱스
+     */
+    int indexAt(int position) {
+        return order[position];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int remainingCapacity() {
+        return couponIds.length - size;
+    }
+
+    boolean isFull() {
+        return size == couponIds.length;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            completions[i] = null;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.test.concurrent.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link MessageQueueCouponDecreaseService}의 파티션별 요청 전달 방식. 모든 구현은 용량이 제한되어 있다.
+ */
+interface DecreaseRequestTransport {
+    /**
+     * 차감 요청을 적재한다. 빈 자리가 없으면 생길 때까지 대기한다.
+     */
+    void publish(long couponId, long requesterId, CompletableFuture<IssueResult> completion);
+
+    /**
+     * 차감 요청을 적재한다. 빈 자리가 없으면 최대 timeoutNanos 동안 대기한다. (0이면 대기하지 않음)
+     *
+     * @return : 적재 여부
+     */
+    boolean offer(long couponId, long requesterId, CompletableFuture<IssueResult> completion, long timeoutNanos) throws InterruptedException;
+
+    /**
+     * 가장 오래된 요청을 꺼내 {@link IssueResult#SHED}로 완료한다.
+     *
+     * @return : 버린 요청이 있는지 여부 (지원하지 않는 전달 방식이면 false)
+     */
+    boolean shedOldest();
+
+    /**
+     * 첫 요청이 도착할 때까지 기다린 뒤, batch가 가득 차거나 maxWaitNanos가 지날 때까지 요청을 모은다.
+     */
+    void collect(DecreaseRequestBatch batch, long maxWaitNanos) throws InterruptedException;
+
+    /**
+     * 대기하지 않고, 처리를 기다리는 요청을 batch의 남은 자리만큼 옮긴다. 소비자 스레드에서만 호출해야 한다.
+     *
+     * @return : 옮긴 요청 수
+     */
+    int drain(DecreaseRequestBatch batch);
+
+    /**
+     * 처리를 기다리는 요청 수
+     */
+    int size();
+
+    enum Type {
+        /**
+         * {@link java.util.concurrent.LinkedBlockingQueue} 기반 문자열 메시지
+         */
+        LINKED_QUEUE,
+        /**
+         * {@link com.test.concurrent.common.DecreaseRequestRingBuffer} 기반 원시 타입 슬롯
+         */
+        RING_BUFFER
+    }
+}
@@ -0,0 +1,23 @@
+package com.test.concurrent.service;
+
+/**
+ * 큐에 적재된 쿠폰 차감 요청의 처리 결과
+ */
+public enum IssueResult {
+    /**
+     * 재고 차감 성공
+     */
+    ISSUED,
+    /**
+     * 재고 부족으로 거절
+     */
+    SOLD_OUT,
+    /**
+     * 큐가 가득 차 적재하지 못함
+     */
+    REJECTED,
+    /**
+     * 큐가 가득 차 더 최근 요청에 자리를 내주고 버려짐 (SHED_OLDEST)
+     */
+    SHED
+}
@@ -0,0 +1,100 @@
+package com.test.concurrent.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청을 {@code couponId:requesterId} 문자열로 만들어 {@link LinkedBlockingQueue}로 전달한다.
+ */
+class LinkedQueueDecreaseRequestTransport implements DecreaseRequestTransport {
+    private final BlockingQueue<Message> queue;
+    private final List<Message> drained = new ArrayList<>();
+
+    LinkedQueueDecreaseRequestTransport(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void publish(long couponId, long requesterId, CompletableFuture<IssueResult> completion) {
+        try {
+            queue.put(new Message(couponId + ":" + requesterId, completion));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("요청 적재 중 인터럽트가 발생했습니다.", e);
+        }
+    }
+
+    @Override
+    public boolean offer(long couponId, long requesterId, CompletableFuture<IssueResult> completion, long timeoutNanos) throws InterruptedException {
+        Message message = new Message(couponId + ":" + requesterId, completion);
+        return timeoutNanos > 0 ? queue.offer(message, timeoutNanos, TimeUnit.NANOSECONDS) : queue.offer(message);
+    }
+
+    @Override
+    public boolean shedOldest() {
+        Message oldest = queue.poll();
+        if (oldest == null) {
+            return false;
+        }
+
+        if (oldest.completion() != null) {
+            oldest.completion().complete(IssueResult.SHED);
+        }
+        return true;
+    }
+
+    @Override
+    public void collect(DecreaseRequestBatch batch, long maxWaitNanos) throws InterruptedException {
+        add(batch, queue.take());
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while (!batch.isFull()) {
+            queue.drainTo(drained, batch.remainingCapacity());
+            for (Message message : drained) {
+                add(batch, message);
+            }
+            drained.clear();
+            if (batch.isFull()) {
+                return;
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+
+            Message message = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (message == null) {
+                return;
+            }
+            add(batch, message);
+        }
+    }
+
+    @Override
+    public int drain(DecreaseRequestBatch batch) {
+        int count = queue.drainTo(drained, batch.remainingCapacity());
+        for (Message message : drained) {
+            add(batch, message);
+        }
+        drained.clear();
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    private void add(DecreaseRequestBatch batch, Message message) {
+        String[] tokens = message.payload().split(":");
+        batch.add(Long.parseLong(tokens[0]), Long.parseLong(tokens[1]), message.completion());
+    }
+
+    private record Message(String payload, CompletableFuture<IssueResult> completion) {
+    }
+}
@@ -1,66 +1,418 @@
 package com.test.concurrent.service;
 
+import com.test.concurrent.common.CompletionTracker;
+import com.test.concurrent.common.DecreaseRequestRingBuffer;
+import com.test.concurrent.common.WaitStrategy;
 import com.test.concurrent.domain.Coupon;
 import com.test.concurrent.repository.CouponRepository;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MessageQueueCouponDecreaseService {
     private final CouponRepository couponRepository;
-    private final BlockingQueue<String> couponQueue = new LinkedBlockingQueue<>();
-    private final ExecutorService executorService = Executors.newSingleThreadExecutor(); // 워커 스레드
-    private final AtomicInteger messageCount = new AtomicInteger(700);
+    private final TransactionTemplate transactionTemplate;
+    private final CompletionTracker completionTracker = new CompletionTracker();
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+
+    /**
+     * 한 번에 처리할 최대 메시지 수
+     */
+    @Value("${coupon.queue.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 배치를 채우기 위해 첫 메시지 이후 대기하는 최대 시간 (ms)
+     */
+    @Value("${coupon.queue.batch-wait-ms:10}")
+    private long batchWaitMillis;
+
+    /**
+     * 큐/워커 쌍의 수. 같은 couponId는 항상 같은 파티션에서 순서대로 처리되고, 다른 파티션의 쿠폰은 병렬로 처리된다.
+     */
+    @Value("${coupon.queue.partitions:1}")
+    private int partitionCount;
+
+    /**
+     * 파티션별 최대 적재 요청 수 (RING_BUFFER 전달 방식은 ring-buffer-size를 따른다)
+     */
+    @Value("${coupon.queue.capacity:10000}")
+    private int queueCapacity;
+
+    /**
+     * 큐가 가득 찼을 때의 처리 방식 (REJECT, BLOCK, SHED_OLDEST)
+     */
+    @Value("${coupon.queue.overflow-policy:BLOCK}")
+    private QueueOverflowPolicy overflowPolicy;
+
+    /**
+     * BLOCK 정책에서 빈 자리를 기다리는 최대 시간 (ms)
+     */
+    @Value("${coupon.queue.offer-timeout-ms:1000}")
+    private long offerTimeoutMillis;
+
+    /**
+     * 파티션별 요청 전달 방식 (LINKED_QUEUE, RING_BUFFER)
+     */
+    @Value("${coupon.queue.transport:LINKED_QUEUE}")
+    private DecreaseRequestTransport.Type transportType;
+
+    /**
+     * RING_BUFFER 전달 방식의 파티션별 슬롯 수 (2의 거듭제곱)
+     */
+    @Value("${coupon.queue.ring-buffer-size:1024}")
+    private int ringBufferSize;
+
+    /**
+     * RING_BUFFER 전달 방식에서 슬롯을 기다리는 방식 (BUSY_SPIN, YIELD, PARK)
+     */
+    @Value("${coupon.queue.wait-strategy:PARK}")
+    private WaitStrategy waitStrategy;
+
+    /**
+     * 종료 시 워커가 처리 중인 묶음을 마칠 때까지 기다리는 최대 시간 (ms)
+     */
+    @Value("${coupon.queue.shutdown-timeout-ms:5000}")
+    private long shutdownTimeoutMillis;
+
+    private Partition[] partitions;
+    private ExecutorService executorService; // 파티션별 워커 스레드
+    private volatile boolean closed;
 
     @PostConstruct
     public void init() {
-        executorService.submit(this::processQueue);
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("파티션 수는 1 이상이어야 합니다.");
+        }
+
+        partitions = new Partition[partitionCount];
+        executorService = Executors.newFixedThreadPool(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            Partition partition = new Partition(i, createTransport());
+            partitions[i] = partition;
+            executorService.submit(() -> processQueue(partition));
+        }
     }
 
-    public void decreaseStockWithMessagingQueue(Long couponId) {
-        couponQueue.offer(couponId + ":" + Thread.currentThread().getId());
+    private DecreaseRequestTransport createTransport() {
+        return switch (transportType) {
+            case LINKED_QUEUE -> new LinkedQueueDecreaseRequestTransport(queueCapacity);
+            case RING_BUFFER -> new RingBufferDecreaseRequestTransport(new DecreaseRequestRingBuffer<>(ringBufferSize, waitStrategy));
+        };
     }
 
-    private void processQueue() {
-        while (!Thread.currentThread().isInterrupted()) {
-            try {
-                String message = couponQueue.take();
-                log.info("메시지를 처리합니다. message={}", message);
+    /**
+     * 쿠폰 차감 요청을 큐에 적재한다.
+     *
+     * @return : 워커가 요청을 처리(차감/거절)하거나, 큐가 가득 차 적재하지 못하면 완료되는 Future.
+     * 워커 스레드에서 완료되므로 후속 작업은 *Async 메서드로 등록해야 한다.
+     * 서비스가 종료되면 처리하지 못한 요청은 {@link IllegalStateException}으로 완료된다.
+     */
+    public CompletableFuture<IssueResult> decreaseStockWithMessagingQueue(Long couponId) {
+        CompletableFuture<IssueResult> completion = new CompletableFuture<>();
+        completionTracker.begin();
+
+        if (closed) {
+            complete(completion, IssueResult.REJECTED);
+            return completion;
+        }
 
-                Long couponId = Long.parseLong(message.split(":")[0]);
+        boolean enqueued;
+        try {
+            enqueued = enqueue(partitionOf(couponId), couponId, Thread.currentThread().getId(), completion);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            enqueued = false;
+        }
+
+        if (!enqueued) {
+            log.warn("큐가 가득 차 요청을 거절합니다. couponId={}", couponId);
+            complete(completion, IssueResult.REJECTED);
+        } else if (closed) {
+            // 확인과 적재 사이에 close()가 워커를 멈추고 남은 요청을 정리했다면, 이 요청은 꺼내 줄 소비자가 없다.
+            // 이미 완료된 요청이면 아무 일도 하지 않으므로, close()의 정리와 겹쳐도 한 번만 완료된다.
+            completeExceptionally(completion, new IllegalStateException("서비스가 종료되어 요청을 처리하지 못했습니다."));
+        }
+        return completion;
+    }
 
-                Coupon coupon = couponRepository.findById(couponId)
-                        .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
-                coupon.decreaseStock();
-                couponRepository.save(coupon);
+    /**
+     * overflowPolicy에 따라 요청을 적재한다.
+     *
+     * @return : 적재 여부
+     */
+    private boolean enqueue(Partition partition, long couponId, long requesterId, CompletableFuture<IssueResult> completion) throws InterruptedException {
+        DecreaseRequestTransport transport = partition.transport;
+        boolean enqueued = switch (overflowPolicy) {
+            case REJECT -> transport.offer(couponId, requesterId, completion, 0L);
+            case BLOCK -> transport.offer(couponId, requesterId, completion, TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis));
+            case SHED_OLDEST -> {
+                while (!transport.offer(couponId, requesterId, completion, 0L)) {
+                    if (!transport.shedOldest()) {
+                        yield false;
+                    }
+                    shedCount.incrementAndGet();
+                    completionTracker.complete();
+                }
+                yield true;
+            }
+        };
 
-                messageCount.decrementAndGet();
+        if (enqueued) {
+            partition.recordDepth();
+        }
+        return enqueued;
+    }
+
+    private Partition partitionOf(Long couponId) {
+        return partitions[Math.floorMod(couponId.hashCode(), partitions.length)];
+    }
+
+    private void processQueue(Partition partition) {
+        DecreaseRequestBatch batch = new DecreaseRequestBatch(batchSize);
+        long batchWaitNanos = TimeUnit.MILLISECONDS.toNanos(batchWaitMillis);
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                partition.transport.collect(batch, batchWaitNanos);
+                log.info("메시지를 처리합니다. partition={}, size={}", partition.index, batch.size());
+
+                // 요청을 완료하기 전에 센다. waitForCompletion()이 반환된 시점에 처리 수가 모두 반영되어 있어야 한다.
+                partition.processedCount.addAndGet(batch.size());
+                applyGroups(batch);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+                failAll(batch);
             } catch (Exception e) {
                 log.error("메시지 처리 중 에러 발생", e);
+                failAll(batch, e);
+            } finally {
+                batch.clear();
             }
         }
+
+        // 종료 중이면 워커가 소비자인 동안 남은 요청을 모두 실패로 완료한다.
+        failPending(partition, batch);
     }
 
-    public void waitForCompletion() throws InterruptedException {
-        while (messageCount.get() > 0) {
-            Thread.sleep(100L);
+    /**
+     * 파티션에 남은 요청을 모두 꺼내 {@link IllegalStateException}으로 완료한다. 소비자 스레드(또는 워커 종료 후)에서만 호출해야 한다.
+     */
+    private void failPending(Partition partition, DecreaseRequestBatch batch) {
+        while (partition.transport.drain(batch) > 0) {
+            failAll(batch);
+            batch.clear();
         }
     }
 
+    private void failAll(DecreaseRequestBatch batch) {
+        failAll(batch, new IllegalStateException("서비스가 종료되어 요청을 처리하지 못했습니다."));
+    }
+
+    /**
+     * 아직 완료되지 않은 batch의 요청을 모두 실패로 완료한다.
+     */
+    private void failAll(DecreaseRequestBatch batch, Throwable e) {
+        for (int i = 0; i < batch.size(); i++) {
+            completeExceptionally(batch.completionAt(i), e);
+        }
+    }
+
+    /**
+     * 요청을 couponId 순으로 정렬한 뒤, 같은 쿠폰의 연속 구간마다 {@link #applyGroup}을 호출한다.
+     */
+    private void applyGroups(DecreaseRequestBatch batch) {
+        batch.sortByCouponId();
+
+        int from = 0;
+        while (from < batch.size()) {
+            long couponId = batch.couponIdAt(batch.indexAt(from));
+            int to = from + 1;
+            while (to < batch.size() && batch.couponIdAt(batch.indexAt(to)) == couponId) {
+                to++;
+            }
+            applyGroup(batch, couponId, from, to);
+            from = to;
+        }
+    }
+
+    /**
+     * 같은 쿠폰에 대한 요청(정렬 위치 from 이상 to 미만)을 하나의 조건부 UPDATE로 차감한다.
+     * 재고가 요청 수보다 적으면 남은 재고만큼 앞선 요청부터 승인하고, 나머지는 거절한다.
+     */
+    private void applyGroup(DecreaseRequestBatch batch, long couponId, int from, int to) {
+        long granted;
+        try {
+            granted = decreaseStockUpTo(couponId, to - from);
+        } catch (Exception e) {
+            log.error("쿠폰 차감 중 에러 발생. couponId={}", couponId, e);
+            for (int position = from; position < to; position++) {
+                completeExceptionally(batch.completionAt(batch.indexAt(position)), e);
+            }
+            return;
+        }
+
+        for (int position = from; position < to; position++) {
+            int index = batch.indexAt(position);
+            if (position - from < granted) {
+                acceptedCount.incrementAndGet();
+                log.info("쿠폰 차감 성공. couponId={}, requesterId={}", couponId, batch.requesterIdAt(index));
+                complete(batch.completionAt(index), IssueResult.ISSUED);
+            } else {
+                rejectedCount.incrementAndGet();
+                log.info("쿠폰 차감 실패. couponId={}, requesterId={}", couponId, batch.requesterIdAt(index));
+                complete(batch.completionAt(index), IssueResult.SOLD_OUT);
+            }
+        }
+    }
+
+    /**
+     * 요청을 완료한다. 이미 완료된 요청이면 아무 일도 하지 않는다.
+     */
+    private void complete(CompletableFuture<IssueResult> completion, IssueResult result) {
+        if (completion.complete(result)) {
+            completionTracker.complete();
+        }
+    }
+
+    private void completeExceptionally(CompletableFuture<IssueResult> completion, Throwable e) {
+        if (completion.completeExceptionally(e)) {
+            completionTracker.complete();
+        }
+    }
+
+    private long decreaseStockUpTo(long couponId, int requested) {
+        return transactionTemplate.execute(status -> {
+            if (couponRepository.decreaseStockIfAvailable(couponId, requested) == 1) {
+                return (long) requested;
+            }
+
+            // 재고가 부족한 경우에만 행을 잠그고 남은 재고를 확인한다.
+            Coupon coupon = couponRepository.findByIdWithPLock(couponId)
+                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+            long remaining = Math.min(coupon.getAvailableStock(), requested);
+            if (remaining > 0) {
+                couponRepository.decreaseStock(couponId, (int) remaining);
+            }
+            return remaining;
+        });
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * SHED_OLDEST 정책으로 버려진 요청 수
+     */
+    public long getShedCount() {
+        return shedCount.get();
+    }
+
+    /**
+     * 파티션별 현재 큐 적재량
+     */
+    public int[] getPartitionQueueDepths() {
+        int[] depths = new int[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            depths[i] = partitions[i].transport.size();
+        }
+        return depths;
+    }
+
+    /**
+     * 파티션별 최대 큐 적재량
+     */
+    public int[] getPartitionMaxQueueDepths() {
+        int[] depths = new int[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            depths[i] = partitions[i].maxDepth.get();
+        }
+        return depths;
+    }
+
+    /**
+     * 쿠폰의 요청이 적재되는 파티션 번호
+     */
+    public int getPartitionIndex(Long couponId) {
+        return partitionOf(couponId).index;
+    }
+
+    /**
+     * 파티션별 처리 완료 메시지 수
+     */
+    public long[] getPartitionProcessedCounts() {
+        long[] counts = new long[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            counts[i] = partitions[i].processedCount.get();
+        }
+        return counts;
+    }
+
+    /**
+     * 적재된 모든 요청이 처리될 때까지 대기한다.
+     */
+    public void waitForCompletion() throws InterruptedException {
+        completionTracker.await();
+    }
+
+    /**
+     * 새 요청을 거절하고 워커를 멈춘다. 처리 중인 묶음은 끝까지 처리하고, 큐에 남은 요청은 {@link IllegalStateException}으로 완료한다.
+     */
     @PreDestroy
     public void close() {
+        closed = true;
         executorService.shutdownNow();
+        try {
+            if (!executorService.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("워커가 종료되지 않았습니다. 남은 요청은 워커가 종료될 때 실패로 완료됩니다.");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // 워커가 모두 종료되었으므로 이 스레드가 소비자로서 종료 직전에 적재된 요청을 정리한다.
+        DecreaseRequestBatch batch = new DecreaseRequestBatch(batchSize);
+        for (Partition partition : partitions) {
+            failPending(partition, batch);
+        }
+    }
+
+    private static class Partition {
+        private final int index;
+        private final DecreaseRequestTransport transport;
+        private final AtomicInteger maxDepth = new AtomicInteger();
+        private final AtomicLong processedCount = new AtomicLong();
+
+        private Partition(int index, DecreaseRequestTransport transport) {
+            this.index = index;
+            this.transport = transport;
+        }
+
+        private void recordDepth() {
+            int depth = transport.size();
+            if (depth > maxDepth.get()) {
+                maxDepth.accumulateAndGet(depth, Math::max);
+            }
+        }
     }
 }
@@ -0,0 +1,20 @@
+package com.test.concurrent.service;
+
+/**
+ * {@link MessageQueueCouponDecreaseService}의 큐가 가득 찼을 때의 처리 방식
+ */
+public enum QueueOverflowPolicy {
+    /**
+     * 대기하지 않고 즉시 {@link IssueResult#REJECTED}로 완료한다.
+     */
+    REJECT,
+    /**
+     * 빈 자리가 생길 때까지 최대 offer-timeout-ms 동안 대기하고, 그래도 가득 차 있으면 {@link IssueResult#REJECTED}로 완료한다.
+     */
+    BLOCK,
+    /**
+     * 가장 오래된 요청을 {@link IssueResult#SHED}로 완료하고 새 요청을 적재한다.
+     * 소비자만 가장 오래된 슬롯에 접근할 수 있는 RING_BUFFER 전달 방식에서는 REJECT와 동일하게 동작한다.
+     */
+    SHED_OLDEST
+}
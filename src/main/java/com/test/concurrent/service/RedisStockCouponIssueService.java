@@ -0,0 +1,97 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.LuaScriptRegistry;
+import com.test.concurrent.domain.Coupon;
+import com.test.concurrent.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 쿠폰 재고를 Redis에 복제해두고, Lua 스크립트 한 번으로 재고 확인/차감/요청자 기록을 처리하는 발급 서비스
+ * <p>
+ * - 요청 경로에서 DB와 분산 락을 사용하지 않는다. <br/>
+ * - 발급 내역은 {@code CLAIMS:couponId:key} Sorted Set에 쌓이며, {@link CouponClaimReconciler}가 주기적으로 DB에 반영한다. <br/>
+ * - 발급 내역은 반영될 때마다 비워지므로, 중복 요청은 따로 유지되는 {@code ISSUED_REQUESTERS:couponId:key} Set으로 확인한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RedisStockCouponIssueService {
+    private static final String STOCK_KEY_PREFIX = "STOCK:";
+    private static final String ISSUED_REQUESTERS_KEY_PREFIX = "ISSUED_REQUESTERS:";
+
+    private static final long NOT_ACTIVATED = -1L;
+    private static final long ISSUED = 1L;
+    private static final long ALREADY_ISSUED = 2L;
+
+    /**
+     * 재고 확인/중복 확인/요청자 기록/재고 차감 스크립트 (scripts/coupon-stock-issue.lua)
+     */
+    private static final String ISSUE_SCRIPT = "coupon-stock-issue";
+
+    private final CouponRepository couponRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final LuaScriptRegistry luaScriptRegistry;
+
+    /**
+     * 쿠폰의 availableStock을 Redis 재고 키로 복제한다. 이미 활성화된 쿠폰이면 아무 일도 하지 않는다.
+     */
+    public void activate(Long couponId) {
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+        Boolean activated = redisTemplate.opsForValue().setIfAbsent(getStockKey(couponId), String.valueOf(coupon.getAvailableStock()));
+        log.info("쿠폰 {} 재고 활성화 (신규: {}, 재고: {})", couponId, activated, coupon.getAvailableStock());
+    }
+
+    /**
+     * Redis 재고에서 쿠폰을 1개 발급한다.
+     *
+     * @param couponId    : 쿠폰 ID
+     * @param key         : 발급 내역 키 접미사
+     * @param requesterId : 요청자 ID (사용자 ID 등). 요청 스레드는 풀에서 재사용되므로 스레드 ID를 쓰면 안 된다.
+     * @return : 발급 성공 여부 (재고 소진, 중복 요청인 경우 false)
+     */
+    public boolean issue(Long couponId, String key, long requesterId) {
+        Long result = luaScriptRegistry.execute(ISSUE_SCRIPT, Long.class,
+                List.of(getStockKey(couponId), CouponClaimReconciler.claimKey(couponId, key), ISSUED_REQUESTERS_KEY_PREFIX + couponId + ":" + key),
+                String.valueOf(requesterId),
+                String.valueOf(System.currentTimeMillis())
+        );
+
+        if (result == null || result == NOT_ACTIVATED) {
+            throw new IllegalStateException("활성화되지 않은 쿠폰입니다.");
+        }
+
+        if (result == ISSUED) {
+            log.info("쿠폰 {} 발급 완료 (requesterId: {})", couponId, requesterId);
+            return true;
+        }
+
+        if (result == ALREADY_ISSUED) {
+            log.info("쿠폰 {} 중복 요청입니다. (requesterId: {})", couponId, requesterId);
+        } else {
+            log.info("쿠폰 {} 재고가 소진되었습니다. (requesterId: {})", couponId, requesterId);
+        }
+        return false;
+    }
+
+    /**
+     * Redis에 남은 재고 (DB 반영 여부와 무관)
+     */
+    public long getAvailableStock(Long couponId) {
+        String stock = redisTemplate.opsForValue().get(getStockKey(couponId));
+        if (stock == null) {
+            throw new IllegalStateException("활성화되지 않은 쿠폰입니다.");
+        }
+        return Long.parseLong(stock);
+    }
+
+    private String getStockKey(Long couponId) {
+        return STOCK_KEY_PREFIX + couponId;
+    }
+}
@@ -0,0 +1,70 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.DecreaseRequestRingBuffer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 요청을 {@link DecreaseRequestRingBuffer}의 미리 할당된 슬롯으로 전달한다. 발행/소비 과정에서 객체를 생성하지 않는다.
+ */
+class RingBufferDecreaseRequestTransport implements DecreaseRequestTransport {
+    private final DecreaseRequestRingBuffer<CompletableFuture<IssueResult>> ringBuffer;
+
+    RingBufferDecreaseRequestTransport(DecreaseRequestRingBuffer<CompletableFuture<IssueResult>> ringBuffer) {
+        this.ringBuffer = ringBuffer;
+    }
+
+    @Override
+    public void publish(long couponId, long requesterId, CompletableFuture<IssueResult> completion) {
+        ringBuffer.publish(couponId, requesterId, completion);
+    }
+
+    @Override
+    public boolean offer(long couponId, long requesterId, CompletableFuture<IssueResult> completion, long timeoutNanos) {
+        return timeoutNanos > 0
+                ? ringBuffer.tryPublish(couponId, requesterId, completion, timeoutNanos)
+                : ringBuffer.tryPublish(couponId, requesterId, completion);
+    }
+
+    /**
+     * 가장 오래된 슬롯은 소비자만 읽을 수 있으므로 지원하지 않는다.
+     */
+    @Override
+    public boolean shedOldest() {
+        return false;
+    }
+
+    @Override
+    public void collect(DecreaseRequestBatch batch, long maxWaitNanos) throws InterruptedException {
+        int counter = 0;
+        while (!ringBuffer.hasAvailable()) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            counter = ringBuffer.getWaitStrategy().idle(counter);
+        }
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        counter = 0;
+        while (!batch.isFull()) {
+            if (ringBuffer.drain(batch, batch.remainingCapacity()) > 0) {
+                counter = 0;
+                continue;
+            }
+            if (deadline - System.nanoTime() <= 0) {
+                return;
+            }
+            counter = ringBuffer.getWaitStrategy().idle(counter);
+        }
+    }
+
+    @Override
+    public int drain(DecreaseRequestBatch batch) {
+        return ringBuffer.drain(batch, batch.remainingCapacity());
+    }
+
+    @Override
+    public int size() {
+        return ringBuffer.size();
+    }
+}
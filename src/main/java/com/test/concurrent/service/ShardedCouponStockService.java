@@ -0,0 +1,165 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.domain.Coupon;
+import com.test.concurrent.domain.CouponStockShard;
+import com.test.concurrent.repository.CouponRepository;
+import com.test.concurrent.repository.CouponStockShardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 쿠폰 재고를 N개의 {@link CouponStockShard} 행으로 나눠 차감하는 서비스
+ * <p>
+ * - 차감은 조각 하나를 골라 조건부 UPDATE로 처리하며, 조각의 재고가 없으면 다음 조각으로 넘어간다.
+ *   하나의 쿠폰에 대한 쓰기가 N개의 행 락으로 분산되므로, 동시 처리량이 조각 수에 비례해 늘어난다. <br/>
+ * - 재고가 바닥난 조각은 메모리에 표시해 이후 요청에서 건너뛴다. <br/>
+ * - 조각으로 나눈 쿠폰의 재고는 조각들의 합이며, Coupon 행의 재고는 0이 된다. 다른 차감 방식과 함께 사용할 수 없다.
+ */
+@Slf4j
+@Service
+public class ShardedCouponStockService {
+    private static final int MAX_SHARDS = Long.SIZE; // 바닥난 조각을 long 비트마스크로 표시한다.
+
+    private final CouponRepository couponRepository;
+    private final CouponStockShardRepository couponStockShardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardSelection shardSelection;
+    private final long totalCacheNanos;
+
+    private final Map<Long, ShardState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 차감할 첫 조각을 고르는 방식
+     */
+    public enum ShardSelection {
+        /**
+         * 요청마다 임의의 조각
+         */
+        RANDOM,
+        /**
+         * 스레드마다 고정된 조각. 같은 스레드의 연속 요청이 같은 행에 모여 다른 스레드와 덜 겹친다.
+         */
+        THREAD_AFFINE
+    }
+
+    public ShardedCouponStockService(
+            CouponRepository couponRepository,
+            CouponStockShardRepository couponStockShardRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${coupon.shard.selection:RANDOM}") ShardSelection shardSelection,
+            @Value("${coupon.shard.total-cache-ms:100}") long totalCacheMillis
+    ) {
+        this.couponRepository = couponRepository;
+        this.couponStockShardRepository = couponStockShardRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardSelection = shardSelection;
+        this.totalCacheNanos = TimeUnit.MILLISECONDS.toNanos(totalCacheMillis);
+    }
+
+    /**
+     * 쿠폰의 남은 재고를 shardCount개의 조각으로 고르게 나눈다.
+     */
+    public void shard(Long couponId, int shardCount) {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("조각 수는 1 이상 " + MAX_SHARDS + " 이하여야 합니다.");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // 쿠폰 행을 먼저 잠가, 동시에 나누려는 호출이 앞선 호출의 커밋 이후에 조각 유무를 확인하게 한다.
+            Coupon coupon = couponRepository.findByIdWithPLock(couponId)
+                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+            if (couponStockShardRepository.countByCouponId(couponId) > 0) {
+                throw new IllegalStateException("이미 조각으로 나뉜 쿠폰입니다.");
+            }
+
+            long stock = coupon.takeAllStock();
+
+            List<CouponStockShard> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new CouponStockShard(couponId, i, stock / shardCount + (i < stock % shardCount ? 1 : 0)));
+            }
+            couponStockShardRepository.saveAll(shards);
+        });
+        states.remove(couponId);
+    }
+
+    /**
+     * 쿠폰 재고를 1개 차감한다.
+     */
+    public void decreaseStock(Long couponId) {
+        ShardState state = states.computeIfAbsent(couponId, this::load);
+        int start = firstShard(state.shardCount);
+
+        for (int i = 0; i < state.shardCount; i++) {
+            int shardIndex = (start + i) % state.shardCount;
+            if (state.isDry(shardIndex)) {
+                continue;
+            }
+
+            Integer updated = transactionTemplate.execute(status -> couponStockShardRepository.decreaseStockIfAvailable(couponId, shardIndex));
+            if (updated != null && updated == 1) {
+                return;
+            }
+            state.markDry(shardIndex);
+        }
+
+        throw new IllegalArgumentException("재고가 부족합니다.");
+    }
+
+    /**
+     * 조각들의 재고 합. total-cache-ms 동안은 마지막으로 조회한 값을 반환한다.
+     */
+    public long getAvailableStock(Long couponId) {
+        ShardState state = states.computeIfAbsent(couponId, this::load);
+        long now = System.nanoTime();
+        if (now - state.totalLoadedAt > totalCacheNanos) {
+            state.cachedTotal = couponStockShardRepository.sumAvailableStock(couponId);
+            state.totalLoadedAt = now;
+        }
+        return state.cachedTotal;
+    }
+
+    private int firstShard(int shardCount) {
+        return switch (shardSelection) {
+            case RANDOM -> ThreadLocalRandom.current().nextInt(shardCount);
+            case THREAD_AFFINE -> (int) Math.floorMod(Thread.currentThread().threadId(), (long) shardCount);
+        };
+    }
+
+    private ShardState load(Long couponId) {
+        long shardCount = couponStockShardRepository.countByCouponId(couponId);
+        if (shardCount == 0) {
+            throw new IllegalArgumentException("조각으로 나뉘지 않은 쿠폰입니다.");
+        }
+        return new ShardState((int) shardCount);
+    }
+
+    private static class ShardState {
+        private final int shardCount;
+        private final AtomicLong dryShards = new AtomicLong(); // 재고가 바닥난 조각의 비트
+        private volatile long cachedTotal;
+        private volatile long totalLoadedAt = System.nanoTime() - Long.MAX_VALUE / 2; // 첫 조회 시 바로 갱신
+
+        private ShardState(int shardCount) {
+            this.shardCount = shardCount;
+        }
+
+        private boolean isDry(int shardIndex) {
+            return (dryShards.get() & (1L << shardIndex)) != 0;
+        }
+
+        private void markDry(int shardIndex) {
+            dryShards.getAndUpdate(bits -> bits | (1L << shardIndex));
+        }
+    }
+}
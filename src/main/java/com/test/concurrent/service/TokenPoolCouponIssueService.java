@@ -0,0 +1,196 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.LuaScriptRegistry;
+import com.test.concurrent.domain.Coupon;
+import com.test.concurrent.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 쿠폰 재고만큼 발급 토큰을 Redis List에 미리 만들어 두고, LPOP 한 번으로 발급하는 서비스
+ * <p>
+ * - 발급은 LPOP으로 결정되며, 토큰이 없으면 재고 소진이다. 재고가 0 미만으로 내려갈 수 없다. <br/>
+ * - 꺼낸 토큰은 같은 Lua 스크립트 안에서 쿠폰 인스턴스 ID로 {@code CLAIMS:couponId:key} Sorted Set과 {@code ISSUED:couponId} Hash에 기록된다.
+ *   Sorted Set은 {@link CouponClaimReconciler}가 DB 재고에 반영하며, Hash는 취소할 수 있는 발급 토큰과 그 발급 내역 키의 기록이다. <br/>
+ * - 취소는 발급 토큰 기록에서 지운 경우에만 토큰을 되돌리므로, 같은 토큰을 두 번 취소하거나 발급되지 않은 토큰을 취소해도 재고가 늘지 않는다. <br/>
+ * - DB 재고는 발급 내역이 반영된 것이 확인된 경우에만 되돌린다. 반영 중인 발급은 취소하지 않는다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenPoolCouponIssueService {
+    private static final String TOKENS_KEY_PREFIX = "TOKENS:";
+    private static final String TOKEN_SEQUENCE_KEY_PREFIX = "TOKEN_SEQ:";
+    private static final String ACTIVATED_KEY_PREFIX = "TOKENS_ACTIVATED:";
+    private static final String ACTIVATING_KEY_PREFIX = "TOKENS_ACTIVATING:";
+    private static final String ISSUED_KEY_PREFIX = "ISSUED:";
+    private static final String ISSUE_SCRIPT = "token-pool-issue";
+    private static final String CANCEL_SCRIPT = "token-pool-cancel";
+    private static final long CANCELED_BEFORE_RECONCILE = 1L;
+    private static final long CANCELED_AFTER_RECONCILE = 2L;
+    private static final long RECONCILING = 3L;
+    private static final Duration ACTIVATION_TIMEOUT = Duration.ofMinutes(1);
+    private static final int MINT_BATCH_SIZE = 1000;
+
+    private final CouponRepository couponRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LuaScriptRegistry luaScriptRegistry;
+
+    /**
+     * 쿠폰의 availableStock만큼 토큰을 발행한다. 이미 활성화되었거나 다른 요청이 활성화 중인 쿠폰이면 아무 일도 하지 않는다. <br/>
+     * 활성화 완료 표시는 발행이 끝난 뒤에 남기고, 동시 활성화는 만료 시간이 있는 활성화 중 표시로 막는다.
+     * 발행 도중 프로세스가 종료되면 완료 표시가 남지 않으므로, 일부 발행된 토큰 풀을 정리한 뒤 다시 활성화해야 한다.
+     */
+    public void activate(Long couponId) {
+        Coupon coupon = couponRepository.findById(couponId)
+                .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+        String activatedKey = ACTIVATED_KEY_PREFIX + couponId;
+        String activatingKey = ACTIVATING_KEY_PREFIX + couponId;
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(activatedKey))
+                || !Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(activatingKey, "1", ACTIVATION_TIMEOUT))) {
+            log.info("쿠폰 {} 토큰 풀이 이미 활성화되어 있습니다.", couponId);
+            return;
+        }
+
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(activatedKey))) { // 확인과 표시 사이에 다른 요청이 활성화를 마친 경우
+                return;
+            }
+            mint(couponId, coupon.getAvailableStock());
+            redisTemplate.opsForValue().set(activatedKey, "1");
+        } finally {
+            redisTemplate.delete(activatingKey);
+        }
+    }
+
+    /**
+     * 토큰을 count개 발행해 풀에 추가한다. 토큰 번호는 쿠폰별 시퀀스에서 한 번에 예약하므로, 여러 번 발행해도 겹치지 않는다. <br/>
+     * DB 재고는 변경하지 않으므로, 재고를 늘리려면 {@link #refill(Long, long)}을 사용해야 한다.
+     */
+    public void mint(Long couponId, long count) {
+        if (count < 1) {
+            return;
+        }
+
+        Long last = redisTemplate.opsForValue().increment(TOKEN_SEQUENCE_KEY_PREFIX + couponId, count);
+        if (last == null) {
+            throw new IllegalStateException("토큰 시퀀스를 예약하지 못했습니다.");
+        }
+
+        long first = last - count + 1;
+        List<String> batch = new ArrayList<>(MINT_BATCH_SIZE);
+        for (long sequence = first; sequence <= last; sequence++) {
+            batch.add(couponId + "-" + sequence);
+            if (batch.size() == MINT_BATCH_SIZE) {
+                redisTemplate.opsForList().rightPushAll(getTokensKey(couponId), batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.opsForList().rightPushAll(getTokensKey(couponId), batch);
+        }
+        log.info("쿠폰 {} 토큰 발행 완료 ({} ~ {})", couponId, first, last);
+    }
+
+    /**
+     * DB 재고를 count만큼 늘리고, 같은 수의 토큰을 발행한다.
+     */
+    public void refill(Long couponId, long count) {
+        transactionTemplate.executeWithoutResult(status -> couponRepository.increaseStock(couponId, count));
+        mint(couponId, count);
+    }
+
+    /**
+     * 토큰 풀에서 쿠폰을 1개 발급한다.
+     *
+     * @param couponId : 쿠폰 ID
+     * @param key      : 발급 내역 키 접미사
+     * @return : 발급된 토큰 (쿠폰 인스턴스 ID). 재고가 소진되었으면 null
+     */
+    public String issue(Long couponId, String key) {
+        String token = luaScriptRegistry.execute(
+                ISSUE_SCRIPT,
+                String.class,
+                List.of(getTokensKey(couponId), getClaimKey(couponId, key), getIssuedKey(couponId)),
+                String.valueOf(System.currentTimeMillis())
+        );
+        if (token == null) {
+            log.info("쿠폰 {} 재고가 소진되었습니다.", couponId);
+        }
+        return token;
+    }
+
+    /**
+     * 발급을 취소하고 토큰을 풀에 되돌린다. 발급 내역 키는 발급 당시 기록된 값을 사용한다. <br/>
+     * - 발급 토큰 기록에 없는 토큰(발급되지 않았거나 이미 취소됨)이면 아무것도 되돌리지 않는다. <br/>
+     * - 아직 DB에 반영되지 않았거나 반영이 거절되어 dead letter로 옮겨진 발급이면 발급 내역에서 지우기만 한다. <br/>
+     * - DB 반영 중(INFLIGHT)인 발급이면 취소하지 않는다. 반영이 끝난 뒤 다시 취소해야 한다. <br/>
+     * - DB에 반영된 발급이면 차감된 재고를 되돌린다.
+     *
+     * @return : 취소 여부
+     */
+    public boolean cancel(Long couponId, String token) {
+        Object claimKey = redisTemplate.opsForHash().get(getIssuedKey(couponId), token);
+        if (claimKey == null) {
+            log.warn("쿠폰 {} 발급 취소 불가: 발급되지 않았거나 이미 취소된 토큰입니다. (token: {})", couponId, token);
+            return false;
+        }
+
+        Long result = luaScriptRegistry.execute(
+                CANCEL_SCRIPT,
+                Long.class,
+                List.of(
+                        getIssuedKey(couponId),
+                        claimKey.toString(),
+                        CouponTransactionSaveService.INFLIGHT_KEY_PREFIX + claimKey,
+                        CouponClaimReconciler.DEAD_LETTER_KEY_PREFIX + claimKey
+                ),
+                token
+        );
+        if (result != null && result == RECONCILING) {
+            log.warn("쿠폰 {} 발급 취소 불가: DB 반영 중인 토큰입니다. (token: {})", couponId, token);
+            return false;
+        }
+        if (result == null || (result != CANCELED_BEFORE_RECONCILE && result != CANCELED_AFTER_RECONCILE)) {
+            log.warn("쿠폰 {} 발급 취소 불가: 발급되지 않았거나 이미 취소된 토큰입니다. (token: {})", couponId, token);
+            return false;
+        }
+        if (result == CANCELED_AFTER_RECONCILE) {
+            transactionTemplate.executeWithoutResult(status -> couponRepository.increaseStock(couponId, 1L));
+        }
+
+        // 되돌린 토큰은 먼저 발급되도록 앞쪽에 넣는다. DB 재고를 되돌린 뒤에 넣으므로, 그 사이에 종료되면 토큰은 미발급 방향으로 사라진다.
+        redisTemplate.opsForList().leftPush(getTokensKey(couponId), token);
+        log.info("쿠폰 {} 발급 취소 (token: {})", couponId, token);
+        return true;
+    }
+
+    /**
+     * 풀에 남은 토큰 수
+     */
+    public long getAvailableStock(Long couponId) {
+        Long size = redisTemplate.opsForList().size(getTokensKey(couponId));
+        return size == null ? 0L : size;
+    }
+
+    private String getTokensKey(Long couponId) {
+        return TOKENS_KEY_PREFIX + couponId;
+    }
+
+    private String getIssuedKey(Long couponId) {
+        return ISSUED_KEY_PREFIX + couponId;
+    }
+
+    private String getClaimKey(Long couponId, String key) {
+        return CouponClaimReconciler.claimKey(couponId, key);
+    }
+}
@@ -0,0 +1,9 @@
+-- 반영하지 못한 chunk 격리: INFLIGHT 내역을 dead letter 키로 옮기고 INFLIGHT 키를 지운다.
+-- KEYS[1] : INFLIGHT 키, KEYS[2] : dead letter 키
+-- 반환 : 옮긴 개수
+local count = redis.call('ZCARD', KEYS[1])
+if count > 0 then
+    redis.call('ZUNIONSTORE', KEYS[2], 2, KEYS[2], KEYS[1], 'AGGREGATE', 'MIN')
+    redis.call('DEL', KEYS[1])
+end
+return count
@@ -0,0 +1,9 @@
+-- 발급 내역 꺼내기: 점수가 낮은(먼저 들어온) 내역부터 꺼내 INFLIGHT 키로 옮긴다.
+-- KEYS[1] : 발급 내역 키, KEYS[2] : INFLIGHT 키
+-- ARGV[1] : 꺼낼 최대 개수
+-- 반환 : 옮긴 개수
+local members = redis.call('ZPOPMIN', KEYS[1], tonumber(ARGV[1]))
+for i = 1, #members, 2 do
+    redis.call('ZADD', KEYS[2], members[i + 1], members[i])
+end
+return #members / 2
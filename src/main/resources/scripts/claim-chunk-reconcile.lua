@@ -0,0 +1,14 @@
+-- 반영 주기의 발급 내역 꺼내기: INFLIGHT 키가 비어 있을 때만 점수가 낮은 내역부터 옮긴다.
+-- KEYS[1] : 발급 내역 키, KEYS[2] : INFLIGHT 키
+-- ARGV[1] : 옮길 최대 개수
+-- 반환 : {INFLIGHT 내역 수, INFLIGHT 중 가장 오래된 요청 시각, 발급 내역 키에 남은 수}
+local pending = redis.call('ZCARD', KEYS[2])
+if pending == 0 then
+    local members = redis.call('ZPOPMIN', KEYS[1], tonumber(ARGV[1]))
+    for i = 1, #members, 2 do
+        redis.call('ZADD', KEYS[2], members[i + 1], members[i])
+    end
+    pending = #members / 2
+end
+local oldest = redis.call('ZRANGE', KEYS[2], 0, 0, 'WITHSCORES')
+return {pending, tonumber(oldest[2] or '0'), redis.call('ZCARD', KEYS[1])}
@@ -0,0 +1,17 @@
+-- 발급 요청 묶음 접수: 요청자 순서대로, 요청 수가 한도 미만인 동안 요청자를 기록한다.
+-- KEYS[1] : 발급 내역 키
+-- ARGV[1] : 최대 요청 수, ARGV[2] : 요청 시각, ARGV[3..] : 요청자
+-- 반환 : 요청자 순서대로 접수 여부를 '1'(접수)/'0'(한도 도달)로 이어 붙인 문자열
+local limit = tonumber(ARGV[1])
+local score = tonumber(ARGV[2])
+local count = redis.call('ZCARD', KEYS[1])
+local admitted = {}
+for i = 3, #ARGV do
+    if count < limit then
+        count = count + redis.call('ZADD', KEYS[1], score, ARGV[i])
+        admitted[#admitted + 1] = '1'
+    else
+        admitted[#admitted + 1] = '0'
+    end
+end
+return table.concat(admitted)
@@ -0,0 +1,11 @@
+-- 발급 요청 접수: 요청 수가 한도 미만이면 요청자를 기록한다.
+-- KEYS[1] : 발급 내역 키
+-- ARGV[1] : 요청자, ARGV[2] : 최대 요청 수, ARGV[3] : 요청 시각
+-- 반환 : 1 (접수), 0 (한도 도달)
+local count = redis.call('ZCARD', KEYS[1])
+if count < tonumber(ARGV[2]) then
+    redis.call('ZADD', KEYS[1], tonumber(ARGV[3]), ARGV[1])
+    return 1
+else
+    return 0
+end
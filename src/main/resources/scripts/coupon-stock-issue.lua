@@ -0,0 +1,18 @@
+-- Redis 재고 차감: 재고 확인, 중복 요청 확인, 요청자 기록, 재고 차감을 한 번에 처리한다.
+-- KEYS[1] : 재고 키, KEYS[2] : 발급 내역 키, KEYS[3] : 발급 요청자 키
+-- ARGV[1] : 요청자 ID, ARGV[2] : 요청 시각
+-- 반환 : 1 (발급), 0 (재고 소진), 2 (중복 요청), -1 (활성화되지 않은 쿠폰)
+-- 중복 확인은 반영 주기에 비워지지 않는 발급 요청자 Set으로 하고, 발급 내역 키는 DB 반영 대기열로만 쓴다.
+local stock = redis.call('GET', KEYS[1])
+if not stock then
+    return -1
+end
+if tonumber(stock) < 1 then
+    return 0
+end
+if redis.call('SADD', KEYS[3], ARGV[1]) == 0 then
+    return 2
+end
+redis.call('ZADD', KEYS[2], tonumber(ARGV[2]), ARGV[1])
+redis.call('DECR', KEYS[1])
+return 1
@@ -0,0 +1,17 @@
+-- 토큰 풀 발급 취소: 발급 당시의 발급 내역 키로 반영 상태를 확인한 뒤 취소한다.
+-- KEYS[1] : 발급 토큰 키 (Hash, 토큰 → 발급 내역 키), KEYS[2] : 발급 내역 키, KEYS[3] : INFLIGHT 키, KEYS[4] : dead letter 키
+-- ARGV[1] : 토큰
+-- 반환 : 0 (발급되지 않았거나 이미 취소된 토큰), 1 (DB 반영 전 취소), 2 (DB 반영 후 취소), 3 (DB 반영 중이라 취소하지 않음)
+-- 발급 내역은 DB 반영이 커밋된 뒤에만 INFLIGHT 키에서 지워지므로, 발급 내역, INFLIGHT, dead letter 어디에도 없으면 반영이 끝난 발급이다.
+if redis.call('HGET', KEYS[1], ARGV[1]) ~= KEYS[2] then
+    return 0
+end
+if redis.call('ZSCORE', KEYS[3], ARGV[1]) then
+    return 3
+end
+local pending = redis.call('ZREM', KEYS[2], ARGV[1]) == 1 or redis.call('ZREM', KEYS[4], ARGV[1]) == 1
+redis.call('HDEL', KEYS[1], ARGV[1])
+if pending then
+    return 1
+end
+return 2
@@ -0,0 +1,11 @@
+-- 토큰 풀 발급: 토큰 꺼내기, 발급 내역 기록, 발급 토큰 기록을 한 번에 처리한다.
+-- KEYS[1] : 토큰 풀 키, KEYS[2] : 발급 내역 키, KEYS[3] : 발급 토큰 키 (Hash, 토큰 → 발급 내역 키)
+-- ARGV[1] : 요청 시각
+-- 반환 : 발급된 토큰, 재고가 소진되었으면 false
+local token = redis.call('LPOP', KEYS[1])
+if not token then
+    return false
+end
+redis.call('ZADD', KEYS[2], tonumber(ARGV[1]), token)
+redis.call('HSET', KEYS[3], token, KEYS[2])
+return token
@@ -0,0 +1,84 @@
+package com.test.concurrent.aop;
+
+import com.test.concurrent.common.CustomSpringELParser;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link DistributedLockAspect}가 락 획득 전에 호출마다 수행하는 작업(어노테이션 조회, key 평가, 트랜잭션 정의 생성)의 비용 비교
+ */
+@Slf4j
+@Tag("benchmark")
+public class DistributedLockAspectBenchmarkTest {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURE_ITERATIONS = 1_000_000;
+    private static final String[] PARAMETER_NAMES = {"couponId", "key"};
+
+    private final Map<Method, DistributedLockMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    @DistributedLock(key = "'like_' + #couponId + ':' + #key")
+    void target(Long couponId, String key) {
+    }
+
+    @Test
+    @DisplayName("SpEL 표현식/메타데이터 캐싱 전후 호출당 오버헤드 비교")
+    void 분산_락_AOP_호출당_오버헤드_벤치마크() throws NoSuchMethodException {
+        Method method = DistributedLockAspectBenchmarkTest.class.getDeclaredMethod("target", Long.class, String.class);
+        Object[] args = {1L, "COUPON_001"};
+
+        assertThat(resolveWithoutCache(method, args)).isEqualTo("like_1:COUPON_001");
+        assertThat(resolveWithCache(method, args)).isEqualTo("like_1:COUPON_001");
+
+        measure("캐싱 전", method, args, false, WARMUP_ITERATIONS);
+        measure("캐싱 후", method, args, true, WARMUP_ITERATIONS);
+
+        long before = measure("캐싱 전", method, args, false, MEASURE_ITERATIONS);
+        long after = measure("캐싱 후", method, args, true, MEASURE_ITERATIONS);
+        log.info("분산 락 AOP 호출당 오버헤드 : 캐싱 전 {} ns/op, 캐싱 후 {} ns/op", before, after);
+    }
+
+    private long measure(String name, Method method, Object[] args, boolean cached, int iterations) {
+        int blackhole = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Object key = cached ? resolveWithCache(method, args) : resolveWithoutCache(method, args);
+            blackhole += key.hashCode();
+        }
+        long nanosPerOp = (System.nanoTime() - start) / iterations;
+        log.debug("{} : {} ns/op (blackhole={})", name, nanosPerOp, blackhole);
+        return nanosPerOp;
+    }
+
+    /**
+     * 캐싱 전 {@link DistributedLockAspect}의 호출당 작업
+     */
+    private Object resolveWithoutCache(Method method, Object[] args) {
+        DistributedLock distributedLock = method.getAnnotation(DistributedLock.class);
+        Object key = CustomSpringELParser.getDynamicValue(PARAMETER_NAMES, args, distributedLock.key());
+
+        var def = new DefaultTransactionDefinition();
+        def.setPropagationBehavior(distributedLock.needNewTransaction()
+                ? TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                : TransactionDefinition.PROPAGATION_REQUIRED);
+        def.setTimeout(Math.max(1, (int) distributedLock.timeUnit().toSeconds(distributedLock.leaseTime()) - 1));
+        return key;
+    }
+
+    /**
+     * 캐싱 후 {@link DistributedLockAspect}의 호출당 작업
+     */
+    private Object resolveWithCache(Method method, Object[] args) {
+        DistributedLockMetadata metadata = metadataCache.computeIfAbsent(method, m -> DistributedLockMetadata.of(m, PARAMETER_NAMES));
+        return metadata.resolveKey(args);
+    }
+}
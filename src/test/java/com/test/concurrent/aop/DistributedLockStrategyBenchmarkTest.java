@@ -0,0 +1,152 @@
+package com.test.concurrent.aop;
+
+import com.test.concurrent.domain.Coupon;
+import com.test.concurrent.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link LockStrategy}별 처리량과 꼬리 지연 비교 <br/>
+ * 전략마다 새 쿠폰을 만들어 같은 수의 요청을 처리하며, READ는 조회, 나머지는 차감을 수행한다.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class DistributedLockStrategyBenchmarkTest {
+    private static final int THREAD_COUNT = 32;
+    private static final int REQUEST_COUNT = 500;
+
+    @Autowired
+    private LockStrategyTarget lockStrategyTarget;
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Test
+    @DisplayName("분산 락 전략별 처리량/지연 비교")
+    void 분산_락_전략별_벤치마크() throws InterruptedException {
+        report(LockStrategy.REENTRANT, measure(LockStrategy.REENTRANT, lockStrategyTarget::decreaseWithReentrant, true));
+        report(LockStrategy.FAIR, measure(LockStrategy.FAIR, lockStrategyTarget::decreaseWithFair, true));
+        report(LockStrategy.SPIN, measure(LockStrategy.SPIN, lockStrategyTarget::decreaseWithSpin, true));
+        report(LockStrategy.FENCED, measure(LockStrategy.FENCED, lockStrategyTarget::decreaseWithFenced, true));
+        report(LockStrategy.WRITE, measure(LockStrategy.WRITE, lockStrategyTarget::decreaseWithWrite, true));
+        report(LockStrategy.READ, measure(LockStrategy.READ, lockStrategyTarget::readWithRead, false));
+    }
+
+    private Result measure(LockStrategy strategy, BiConsumer<Long, String> method, boolean decreases) throws InterruptedException {
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_BENCH_" + strategy, REQUEST_COUNT));
+        long[] latencies = new long[REQUEST_COUNT];
+        AtomicInteger sequence = new AtomicInteger();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch latch = new CountDownLatch(REQUEST_COUNT);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            executorService.submit(() -> {
+                long requestStart = System.nanoTime();
+                try {
+                    method.accept(coupon.getId(), coupon.getName());
+                } finally {
+                    latencies[sequence.getAndIncrement()] = System.nanoTime() - requestStart;
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+        long elapsed = System.nanoTime() - start;
+        executorService.shutdown();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isEqualTo(decreases ? 0L : REQUEST_COUNT);
+
+        Arrays.sort(latencies);
+        return new Result(elapsed, latencies);
+    }
+
+    private void report(LockStrategy strategy, Result result) {
+        log.info("{} : throughput={} req/s, p50={} ms, p99={} ms, max={} ms",
+                strategy,
+                REQUEST_COUNT * 1_000_000_000L / result.elapsedNanos(),
+                result.percentileMillis(0.50),
+                result.percentileMillis(0.99),
+                result.percentileMillis(1.0)
+        );
+    }
+
+    private record Result(long elapsedNanos, long[] sortedLatencies) {
+        long percentileMillis(double percentile) {
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return TimeUnit.NANOSECONDS.toMillis(sortedLatencies[Math.max(0, index)]);
+        }
+    }
+
+    @TestConfiguration
+    static class LockStrategyTargetConfig {
+        @Bean
+        LockStrategyTarget lockStrategyTarget(CouponRepository couponRepository) {
+            return new LockStrategyTarget(couponRepository);
+        }
+    }
+
+    @RequiredArgsConstructor
+    static class LockStrategyTarget {
+        private final CouponRepository couponRepository;
+
+        @DistributedLock(key = "#key", strategy = LockStrategy.REENTRANT)
+        public void decreaseWithReentrant(Long couponId, String key) {
+            decrease(couponId);
+        }
+
+        @DistributedLock(key = "#key", strategy = LockStrategy.FAIR)
+        public void decreaseWithFair(Long couponId, String key) {
+            decrease(couponId);
+        }
+
+        @DistributedLock(key = "#key", strategy = LockStrategy.SPIN)
+        public void decreaseWithSpin(Long couponId, String key) {
+            decrease(couponId);
+        }
+
+        @DistributedLock(key = "#key", strategy = LockStrategy.FENCED)
+        public void decreaseWithFenced(Long couponId, String key) {
+            decrease(couponId);
+        }
+
+        @DistributedLock(key = "#key", strategy = LockStrategy.WRITE)
+        public void decreaseWithWrite(Long couponId, String key) {
+            decrease(couponId);
+        }
+
+        @DistributedLock(key = "#key", strategy = LockStrategy.READ)
+        public void readWithRead(Long couponId, String key) {
+            couponRepository.findById(couponId)
+                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+        }
+
+        private void decrease(Long couponId) {
+            Coupon coupon = couponRepository.findById(couponId)
+                    .orElseThrow(() -> new IllegalArgumentException("존재하지 않는 쿠폰입니다."));
+
+            coupon.decreaseStock();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.test.concurrent.service;
 
+import com.test.concurrent.common.LuaScriptRegistry;
 import com.test.concurrent.domain.AtomicCoupon;
 import com.test.concurrent.domain.Coupon;
 import com.test.concurrent.domain.OptimisticCoupon;
 import com.test.concurrent.repository.AtomicCouponRepository;
 import com.test.concurrent.repository.CouponRepository;
+import com.test.concurrent.repository.CouponStockShardRepository;
 import com.test.concurrent.repository.OptimisticCouponRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,10 +15,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -40,12 +50,47 @@ public class CouponDecreaseTest {
 
     @Autowired
     private CouponTransactionSaveService couponTransactionSaveService;
+    @Autowired
+    private CouponStockLedger couponStockLedger;
+    @Autowired
+    private AtomicCouponDecreaseService atomicCouponDecreaseService;
+    @Autowired
+    private AtomicCouponStockRegistry atomicCouponStockRegistry;
+    @Autowired
+    private ShardedCouponStockService shardedCouponStockService;
+    @Autowired
+    private TokenPoolCouponIssueService tokenPoolCouponIssueService;
+    @Autowired
+    private CouponStockShardRepository couponStockShardRepository;
+    @Autowired
+    private RedisStockCouponIssueService redisStockCouponIssueService;
+    @Autowired
+    private CouponClaimReconciler couponClaimReconciler;
+    @Autowired
+    private CompletableFutureCouponDecreaseService completableFutureCouponDecreaseService;
+    @Autowired
+    private LuaScriptRegistry luaScriptRegistry;
+    @Autowired
+    private RedisTemplate<String, String> redisTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     private static final int THREAD_COUNT = 700;
     private static final long COUPON_COUNT = 700L;
 
     private Coupon coupon;
 
+    /**
+     * ddl-auto: create로 실행마다 쿠폰 ID가 1부터 다시 시작하므로, 이전 실행이 남긴 쿠폰별 Redis 키(토큰 풀, 재고, 발급 내역 등)를 지운다.
+     */
+    @BeforeEach
+    void clearRedis() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
     @Test
     @DisplayName("실패 케이스: 동시성 환경에서 300명 쿠폰 차감 테스트")
     void 쿠폰차감_동시성_300명_테스트() throws InterruptedException {
@@ -80,6 +125,23 @@ public class CouponDecreaseTest {
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
     }
 
+    @Test
+    @DisplayName("ReentrantLock<Non Tx>: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void 선언적_트랜잭션_없이_ReentrantLock_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponDecreaseService::decreaseStockWithReentrantLock
+        );
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
     @Test
     @DisplayName("synchronized<외부 호출>: 동시성 환경에서 300명 쿠폰 차감 테스트")
     void 외부에서_synchronized_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
@@ -114,6 +176,35 @@ public class CouponDecreaseTest {
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
     }
 
+    @Test
+    @DisplayName("Keyed Lock: 동시성 환경에서 서로 다른 쿠폰 2개에 300명씩 차감 테스트")
+    void 쿠폰별_락_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon first = couponRepository.save(new Coupon("COUPON_001", COUPON_COUNT));
+        Coupon second = couponRepository.save(new Coupon("COUPON_002", COUPON_COUNT));
+
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch latch = new CountDownLatch(THREAD_COUNT * 2);
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            for (Long couponId : List.of(first.getId(), second.getId())) {
+                executorService.submit(() -> {
+                    try {
+                        couponService.decreaseStockWithReentrantLock(couponId);
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+            }
+        }
+        latch.await();
+
+        for (Long couponId : List.of(first.getId(), second.getId())) {
+            Coupon persistedCoupon = couponRepository.findById(couponId).orElseThrow(IllegalArgumentException::new);
+            assertThat(persistedCoupon.getAvailableStock()).isZero();
+            log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+        }
+    }
+
     @Test
     @DisplayName("실패 테스트: Atomic & Timestamp: 동시성 환경에서 300명 쿠폰 차감 테스트")
     void Atomic_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
@@ -131,6 +222,25 @@ public class CouponDecreaseTest {
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
     }
 
+    @Test
+    @DisplayName("Atomic Counter: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void Atomic_카운터_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        AtomicCoupon coupon = new AtomicCoupon("COUPON_001", COUPON_COUNT);
+        atomicCouponRepository.save(coupon);
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                atomicCouponDecreaseService::decreaseStockWithCounter
+        );
+
+        atomicCouponStockRegistry.flush();
+
+        AtomicCoupon persistedCoupon = atomicCouponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock().get()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
     @Test
     @DisplayName("OLock & CAS: 동시성 환경에서 300명 쿠폰 차감 테스트")
     void OLock_CAS_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
@@ -143,6 +253,8 @@ public class CouponDecreaseTest {
                 couponService::decreaseStockWithOLockAndCAS
         );
 
+        // 한 쿠폰에 요청이 몰리면 충돌률이 임계값을 넘어 비관적 락으로 전환되어야 한다.
+        assertThat(couponService.getContentionEscalationCount(coupon.getId())).isPositive();
         OptimisticCoupon persistedCoupon = optimisticCouponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
         assertThat(persistedCoupon.getAvailableStock()).isZero();
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
@@ -165,6 +277,42 @@ public class CouponDecreaseTest {
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
     }
 
+    @Test
+    @DisplayName("Conditional Update: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void 조건부_UPDATE_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponDecreaseService::decreaseStockWithConditionalUpdate
+        );
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("Sharded Stock: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void 재고_조각_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+        shardedCouponStockService.shard(coupon.getId(), 8);
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                shardedCouponStockService::decreaseStock
+        );
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        assertThat(couponStockShardRepository.sumAvailableStock(coupon.getId())).isZero();
+        log.debug("잔여 쿠폰 수량: " + couponStockShardRepository.sumAvailableStock(coupon.getId()));
+    }
+
     @Test
     @DisplayName("DistributedLock: 동시성 환경에서 300명 쿠폰 차감 테스트")
     void 분산_락_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
@@ -190,6 +338,156 @@ public class CouponDecreaseTest {
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
     }
 
+    @Test
+    @DisplayName("Read/Write Lock: 동시성 환경에서 300명 쿠폰 차감 및 조회 테스트")
+    void 읽기_쓰기_락_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch latch = new CountDownLatch(THREAD_COUNT * 2);
+        Queue<Long> readStocks = new ConcurrentLinkedQueue<>();
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            executorService.submit(() -> {
+                try {
+                    couponDecreaseService.decreaseStockWithWriteLock(coupon.getId(), coupon.getName());
+                } finally {
+                    latch.countDown();
+                }
+            });
+            executorService.submit(() -> {
+                try {
+                    readStocks.add(couponDecreaseService.getAvailableStockWithReadLock(coupon.getId(), coupon.getName()));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+
+        // 작업 스레드에서 실패한 단언은 테스트를 실패시키지 않으므로, 조회 결과는 테스트 스레드에서 검증한다.
+        assertThat(readStocks).hasSize(THREAD_COUNT).allMatch(stock -> stock >= 0L && stock <= COUPON_COUNT);
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("Multi Lock: 동시성 환경에서 300명 쿠폰 묶음 차감 테스트")
+    void 멀티_락_쿠폰_묶음차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon first = couponRepository.save(new Coupon("COUPON_001", COUPON_COUNT));
+        Coupon second = couponRepository.save(new Coupon("COUPON_002", COUPON_COUNT));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            // 절반은 반대 순서로 요청해도 락은 정렬된 순서로 획득된다.
+            List<Long> couponIds = (i % 2 == 0)
+                    ? List.of(first.getId(), second.getId())
+                    : List.of(second.getId(), first.getId());
+            executorService.submit(() -> {
+                try {
+                    couponDecreaseService.decreaseStocksWithMultiLock(couponIds);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+
+        for (Long couponId : List.of(first.getId(), second.getId())) {
+            Coupon persistedCoupon = couponRepository.findById(couponId).orElseThrow(IllegalArgumentException::new);
+            assertThat(persistedCoupon.getAvailableStock()).isZero();
+            log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+        }
+    }
+
+    @Test
+    @DisplayName("Combining Lock: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void 컴바이닝_락_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            executorService.submit(() -> {
+                try {
+                    couponDecreaseService.decreaseStockWithCombiningLock(coupon.getId(), coupon.getName());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("Combining Lock: 재고를 넘는 요청 중 실패한 호출만 예외를 받고 나머지 차감은 반영되는 테스트")
+    void 컴바이닝_락_재고_초과_부분_실패_테스트() throws InterruptedException {
+        int requestCount = 300;
+        long stock = 100L;
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", stock));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(requestCount);
+        CountDownLatch latch = new CountDownLatch(requestCount);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        for (int i = 0; i < requestCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    couponDecreaseService.decreaseStockWithCombiningLock(coupon.getId(), coupon.getName());
+                    succeeded.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    failed.incrementAndGet(); // 재고 부족
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+
+        // 실패한 호출이 포함된 묶음은 롤백 후 개별 실행되므로, 성공한 호출 수만큼만 차감된다.
+        assertThat(succeeded.get()).isEqualTo(stock);
+        assertThat(failed.get()).isEqualTo(requestCount - stock);
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+    }
+
+    @Test
+    @DisplayName("Two-Tier Lock: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void 로컬_분산_2단계_락_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        CountDownLatch latch = new CountDownLatch(THREAD_COUNT);
+
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            executorService.submit(() -> {
+                try {
+                    couponDecreaseService.decreaseStockWithTwoTierLock(coupon.getId(), coupon.getName());
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
     @Test
     @DisplayName("Sorted Set: 동시성 환경에서 400명 쿠폰 차감 테스트")
     void 정렬_집합_쿠폰차감_동시성_400명_테스트() throws InterruptedException {
@@ -217,6 +515,83 @@ public class CouponDecreaseTest {
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
     }
 
+    @Test
+    @DisplayName("Bulk Admission: 동시성 환경에서 100명씩 묶은 요청 12개 중 한도 1000명까지 등록 테스트")
+    void 묶음_요청_등록_쿠폰차감_동시성_테스트() throws InterruptedException {
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", 1000L));
+        int batchCount = 12;
+        int batchSize = 100;
+
+        ExecutorService executorService = Executors.newFixedThreadPool(batchCount);
+        CountDownLatch latch = new CountDownLatch(batchCount);
+        List<BitSet> results = new CopyOnWriteArrayList<>();
+
+        for (int i = 0; i < batchCount; i++) {
+            List<Long> requesterIds = new ArrayList<>();
+            for (long j = 0; j < batchSize; j++) {
+                requesterIds.add(i * (long) batchSize + j);
+            }
+            executorService.submit(() -> {
+                try {
+                    results.add(couponDecreaseService.registerCouponRequests(coupon.getId(), coupon.getName(), requesterIds));
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+
+        couponTransactionSaveService.saveAll(coupon.getId(), coupon.getName());
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(results).hasSize(batchCount);
+        assertThat(results.stream().mapToInt(BitSet::cardinality).sum()).isEqualTo(1000);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("saveAll: chunk 크기보다 많은 발급 내역을 여러 chunk로 나눠 모두 반영하는 테스트")
+    void 발급_내역_chunk_분할_반영_테스트() {
+        int requestCount = 1000; // chunk-size(500)의 2배
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", requestCount));
+        List<Long> requesterIds = new ArrayList<>();
+        for (long i = 0; i < requestCount; i++) {
+            requesterIds.add(i);
+        }
+        couponDecreaseService.registerCouponRequests(coupon.getId(), coupon.getName(), requesterIds);
+        long popCallsBefore = luaScriptRegistry.getStats("claim-chunk-pop").calls();
+
+        long saved = couponTransactionSaveService.saveAll(coupon.getId(), coupon.getName());
+
+        // chunk 2개를 꺼낸 뒤, 빈 결과로 한 번 더 확인하고 끝난다.
+        assertThat(saved).isEqualTo(requestCount);
+        assertThat(luaScriptRegistry.getStats("claim-chunk-pop").calls() - popCallsBefore).isEqualTo(3);
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isZero();
+    }
+
+    @Test
+    @DisplayName("saveAll: 이전 실행이 남긴 INFLIGHT chunk를 먼저 반영한 뒤 남은 발급 내역을 반영하는 테스트")
+    void 남은_INFLIGHT_chunk_재반영_테스트() {
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", 100L));
+        String key = coupon.getId() + ":" + coupon.getName();
+        couponDecreaseService.registerCouponRequests(coupon.getId(), coupon.getName(), List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+
+        // 반영 도중 종료되어 INFLIGHT 키에 남은 chunk
+        String inflightKey = CouponTransactionSaveService.INFLIGHT_KEY_PREFIX + key;
+        long now = System.currentTimeMillis();
+        for (String requester : List.of("101", "102", "103")) {
+            redisTemplate.opsForZSet().add(inflightKey, requester, now);
+        }
+
+        long saved = couponTransactionSaveService.saveAll(coupon.getId(), coupon.getName());
+
+        assertThat(saved).isEqualTo(13L);
+        assertThat(redisTemplate.hasKey(inflightKey)).isFalse();
+        assertThat(redisTemplate.opsForZSet().zCard(key)).isZero();
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(100L - 13L);
+    }
+
     @Test
     @DisplayName("Messaging Queue: 동시성 환경에서 300명 쿠폰 차감 테스트")
     void 메시징_큐_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
@@ -244,8 +619,268 @@ public class CouponDecreaseTest {
         log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
     }
 
+    @Test
+    @DisplayName("Messaging Queue: 재고보다 많은 요청을 묶어 처리할 때 요청별 승인/거절 테스트")
+    void 메시징_큐_재고_초과_요청별_결과_테스트() throws InterruptedException {
+        long stock = 100L;
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", stock));
+
+        List<CompletableFuture<IssueResult>> results = new CopyOnWriteArrayList<>();
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponId -> results.add(messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(couponId))
+        );
+
+        messageQueueCouponDecreaseService.waitForCompletion();
+
+        // 재고가 묶음 크기보다 적게 남은 묶음은 비관적 락으로 남은 재고만큼만 승인한다.
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(results).hasSize(THREAD_COUNT);
+        assertThat(results).allMatch(CompletableFuture::isDone);
+        assertThat(results.stream().filter(result -> result.join() == IssueResult.ISSUED).count()).isEqualTo(stock);
+        assertThat(results.stream().filter(result -> result.join() == IssueResult.SOLD_OUT).count()).isEqualTo(THREAD_COUNT - stock);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("Stock Ledger: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void 재고_원장_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponDecreaseService::decreaseStockWithLedger
+        );
+
+        couponStockLedger.flush();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("Redis Stock: 동시성 환경에서 300명 쿠폰 발급 테스트")
+    void 레디스_재고_쿠폰발급_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+        redisStockCouponIssueService.activate(coupon.getId());
+        AtomicLong requesterIds = new AtomicLong();
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponId -> redisStockCouponIssueService.issue(couponId, coupon.getName(), requesterIds.incrementAndGet())
+        );
+
+        couponClaimReconciler.reconcileAll();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(redisStockCouponIssueService.getAvailableStock(coupon.getId())).isZero();
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("Reconciler: DB 재고를 넘는 발급 내역은 dead letter로 옮기고, 이후 발급 내역은 계속 반영되는 테스트")
+    void 발급_내역_반영_재고_부족_dead_letter_테스트() {
+        long stock = 10L;
+        int claimCount = 5;
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", stock));
+        tokenPoolCouponIssueService.activate(coupon.getId());
+        long deadLetterBefore = couponClaimReconciler.getDeadLetterCount();
+
+        // 토큰 풀을 만든 뒤 DB 재고만 줄여, 발급 내역이 DB 재고를 넘게 만든다.
+        transactionTemplate.executeWithoutResult(status -> couponRepository.decreaseStock(coupon.getId(), (int) stock - 2));
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < claimCount; i++) {
+            tokens.add(tokenPoolCouponIssueService.issue(coupon.getId(), coupon.getName()));
+        }
+        couponClaimReconciler.reconcileAll();
+
+        String claimKey = CouponClaimReconciler.claimKey(coupon.getId(), coupon.getName());
+        assertThat(couponClaimReconciler.getDeadLetterCount() - deadLetterBefore).isEqualTo(claimCount);
+        assertThat(redisTemplate.opsForZSet().zCard(CouponClaimReconciler.DEAD_LETTER_KEY_PREFIX + claimKey)).isEqualTo(claimCount);
+        assertThat(redisTemplate.hasKey(CouponTransactionSaveService.INFLIGHT_KEY_PREFIX + claimKey)).isFalse();
+        assertThat(couponClaimReconciler.getLastBacklog()).isZero();
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(2L);
+
+        // 격리된 chunk가 키를 막지 않으므로, 이후 발급 내역은 반영된다.
+        tokenPoolCouponIssueService.issue(coupon.getId(), coupon.getName());
+        couponClaimReconciler.reconcileAll();
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(1L);
+        assertThat(couponClaimReconciler.getDeadLetterCount() - deadLetterBefore).isEqualTo(claimCount);
+
+        // dead letter로 옮겨진 발급은 DB에 반영되지 않았으므로, 취소해도 DB 재고를 되돌리지 않는다.
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), tokens.get(0))).isTrue();
+        assertThat(redisTemplate.opsForZSet().zCard(CouponClaimReconciler.DEAD_LETTER_KEY_PREFIX + claimKey)).isEqualTo(claimCount - 1);
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Redis Stock: DB 반영 이후에도 같은 요청자에게 중복 발급하지 않는 테스트")
+    void 레디스_재고_반영_후_중복_발급_방지_테스트() {
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", COUPON_COUNT));
+        redisStockCouponIssueService.activate(coupon.getId());
+        long requesterId = 1L;
+
+        assertThat(redisStockCouponIssueService.issue(coupon.getId(), coupon.getName(), requesterId)).isTrue();
+        couponClaimReconciler.reconcileAll();
+        assertThat(redisStockCouponIssueService.issue(coupon.getId(), coupon.getName(), requesterId)).isFalse();
+        assertThat(redisStockCouponIssueService.issue(coupon.getId(), coupon.getName(), requesterId + 1)).isTrue(); // 같은 스레드라도 다른 요청자는 발급된다.
+        couponClaimReconciler.reconcileAll();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(redisStockCouponIssueService.getAvailableStock(coupon.getId())).isEqualTo(COUPON_COUNT - 2);
+        assertThat(persistedCoupon.getAvailableStock()).isEqualTo(COUPON_COUNT - 2);
+    }
+
+    @Test
+    @DisplayName("Token Pool: 발급된 토큰만 한 번 취소되고, DB 반영 이후의 취소는 DB 재고를 되돌리는 테스트")
+    void 토큰_풀_발급_취소_테스트() {
+        long stock = 10L;
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", stock));
+        tokenPoolCouponIssueService.activate(coupon.getId());
+        tokenPoolCouponIssueService.activate(coupon.getId()); // 이미 활성화된 쿠폰은 토큰을 다시 발행하지 않는다.
+        assertThat(tokenPoolCouponIssueService.getAvailableStock(coupon.getId())).isEqualTo(stock);
+
+        // DB 반영 전 취소: 발급 내역에서만 지운다.
+        String pending = tokenPoolCouponIssueService.issue(coupon.getId(), coupon.getName());
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), pending)).isTrue();
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), pending)).isFalse();
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), coupon.getId() + "-unknown")).isFalse();
+        couponClaimReconciler.reconcileAll();
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(stock);
+
+        // DB 반영 후 취소: DB 재고를 한 번만 되돌린다.
+        String reconciled = tokenPoolCouponIssueService.issue(coupon.getId(), coupon.getName());
+        couponClaimReconciler.reconcileAll();
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(stock - 1);
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), reconciled)).isTrue();
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), reconciled)).isFalse();
+
+        // DB 반영 중 취소: 반영 결과를 알 수 없으므로 취소하지 않고, 반영이 끝난 뒤에는 취소된다.
+        String claimKey = CouponClaimReconciler.claimKey(coupon.getId(), coupon.getName());
+        String inflight = tokenPoolCouponIssueService.issue(coupon.getId(), coupon.getName());
+        luaScriptRegistry.execute("claim-chunk-pop", Long.class, List.of(claimKey, CouponTransactionSaveService.INFLIGHT_KEY_PREFIX + claimKey), "100");
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), inflight)).isFalse();
+        couponClaimReconciler.reconcileAll();
+        assertThat(tokenPoolCouponIssueService.cancel(coupon.getId(), inflight)).isTrue();
+
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(stock);
+        assertThat(tokenPoolCouponIssueService.getAvailableStock(coupon.getId())).isEqualTo(stock);
+    }
+
+    @Test
+    @DisplayName("Lua Script Registry: 스크립트 캐시를 비운 뒤에도 300명 쿠폰 발급 테스트")
+    void 스크립트_캐시_초기화_후_레디스_재고_쿠폰발급_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+        redisStockCouponIssueService.activate(coupon.getId());
+        long callsBefore = luaScriptRegistry.getStats("coupon-stock-issue").calls();
+        AtomicLong requesterIds = new AtomicLong();
+
+        // Redis 재시작처럼 스크립트 캐시를 비워 NOSCRIPT를 유도한다.
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.scriptingCommands().scriptFlush();
+            return null;
+        });
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponId -> redisStockCouponIssueService.issue(couponId, coupon.getName(), requesterIds.incrementAndGet())
+        );
+
+        couponClaimReconciler.reconcileAll();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        LuaScriptRegistry.ScriptStats stats = luaScriptRegistry.getStats("coupon-stock-issue");
+        assertThat(stats.calls() - callsBefore).isEqualTo(THREAD_COUNT);
+        assertThat(stats.errors()).isZero();
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("스크립트 평균 실행 시간: " + stats.averageMicros() + "us, 최대: " + stats.maxMicros() + "us");
+    }
+
+    @Test
+    @DisplayName("Reconciler: 동시성 환경에서 서로 다른 쿠폰 2개에 300명씩 발급 후 일괄 반영 테스트")
+    void 발급_내역_일괄_반영_동시성_300명_테스트() throws InterruptedException {
+        Coupon first = couponRepository.save(new Coupon("COUPON_001", COUPON_COUNT));
+        Coupon second = couponRepository.save(new Coupon("COUPON_002", COUPON_COUNT));
+        redisStockCouponIssueService.activate(first.getId());
+        redisStockCouponIssueService.activate(second.getId());
+        AtomicLong requesterIds = new AtomicLong();
+
+        for (Coupon coupon : List.of(first, second)) {
+            performConcurrencyTest(
+                    THREAD_COUNT,
+                    coupon.getId(),
+                    couponId -> redisStockCouponIssueService.issue(couponId, coupon.getName(), requesterIds.incrementAndGet())
+            );
+        }
+
+        couponClaimReconciler.reconcileAll();
+
+        for (Long couponId : List.of(first.getId(), second.getId())) {
+            Coupon persistedCoupon = couponRepository.findById(couponId).orElseThrow(IllegalArgumentException::new);
+            assertThat(persistedCoupon.getAvailableStock()).isZero();
+            log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+        }
+        assertThat(couponClaimReconciler.getLastBacklog()).isZero();
+        log.debug("반영 지연: " + couponClaimReconciler.getMaxLagMillis() + "ms");
+    }
+
+    @Test
+    @DisplayName("Token Pool: 동시성 환경에서 300명 쿠폰 발급 테스트")
+    void 토큰_풀_쿠폰발급_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+        tokenPoolCouponIssueService.activate(coupon.getId());
+
+        Set<String> tokens = ConcurrentHashMap.newKeySet();
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponId -> {
+                    String token = tokenPoolCouponIssueService.issue(couponId, coupon.getName());
+                    if (token != null) {
+                        tokens.add(token);
+                    }
+                }
+        );
+
+        couponClaimReconciler.reconcileAll();
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(tokens).hasSize((int) COUPON_COUNT);
+        assertThat(tokenPoolCouponIssueService.getAvailableStock(coupon.getId())).isZero();
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
+    @Test
+    @DisplayName("Keyed Executor: 동시성 환경에서 300명 쿠폰 차감 테스트")
+    void 키별_직렬_실행_쿠폰차감_동시성_300명_테스트() throws InterruptedException {
+        Coupon coupon = new Coupon("COUPON_001", COUPON_COUNT);
+        couponRepository.save(coupon);
+
+        performConcurrencyTest(
+                THREAD_COUNT,
+                coupon.getId(),
+                couponId -> completableFutureCouponDecreaseService.decreaseStockWithKeyedExecutor(couponId).join()
+        );
+
+        Coupon persistedCoupon = couponRepository.findById(coupon.getId()).orElseThrow(IllegalArgumentException::new);
+        assertThat(persistedCoupon.getAvailableStock()).isZero();
+        log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+    }
+
     private void performConcurrencyTest(int threadCount, Long couponId, Consumer<Long> method) throws InterruptedException {
-        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
         CountDownLatch latch = new CountDownLatch(threadCount);
 
         for (int i = 0; i < threadCount; i++) {
@@ -0,0 +1,114 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.common.DecreaseRequestRingBuffer;
+import com.test.concurrent.common.WaitStrategy;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 메시징 큐 요청 전달 방식별 할당량과 적재~처리 지연 시간 비교 (DB 없이 전달 구간만 측정)
+ */
+@Slf4j
+@Tag("benchmark")
+public class DecreaseRequestTransportBenchmarkTest {
+    private static final int PRODUCER_COUNT = 4;
+    private static final int REQUESTS_PER_PRODUCER = 250_000;
+    private static final int TOTAL_REQUESTS = PRODUCER_COUNT * REQUESTS_PER_PRODUCER;
+    private static final int BATCH_SIZE = 100;
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final int RING_BUFFER_SIZE = 1024;
+    private static final long BATCH_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1L);
+
+    private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    @DisplayName("LinkedBlockingQueue vs RingBuffer: 요청당 할당량과 p99 지연 시간 비교")
+    void 요청_전달_방식_벤치마크() throws InterruptedException {
+        // JIT 워밍업
+        run(() -> new LinkedQueueDecreaseRequestTransport(QUEUE_CAPACITY));
+        run(() -> new RingBufferDecreaseRequestTransport(new DecreaseRequestRingBuffer<>(RING_BUFFER_SIZE, WaitStrategy.YIELD)));
+
+        report("LINKED_QUEUE", run(() -> new LinkedQueueDecreaseRequestTransport(QUEUE_CAPACITY)));
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            report("RING_BUFFER(" + waitStrategy + ")",
+                    run(() -> new RingBufferDecreaseRequestTransport(new DecreaseRequestRingBuffer<>(RING_BUFFER_SIZE, waitStrategy))));
+        }
+    }
+
+    private Result run(Supplier<DecreaseRequestTransport> transportSupplier) throws InterruptedException {
+        DecreaseRequestTransport transport = transportSupplier.get();
+        long[] latencies = new long[TOTAL_REQUESTS];
+        AtomicLong allocatedBytes = new AtomicLong();
+        CountDownLatch latch = new CountDownLatch(PRODUCER_COUNT + 1);
+
+        Thread consumer = new Thread(() -> {
+            long before = threadMXBean.getCurrentThreadAllocatedBytes();
+            DecreaseRequestBatch batch = new DecreaseRequestBatch(BATCH_SIZE);
+            int received = 0;
+            try {
+                while (received < TOTAL_REQUESTS) {
+                    transport.collect(batch, BATCH_WAIT_NANOS);
+                    long now = System.nanoTime();
+                    for (int i = 0; i < batch.size(); i++) {
+                        latencies[received++] = now - batch.requesterIdAt(i); // requesterId 슬롯에 적재 시각을 담아 전달
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                allocatedBytes.addAndGet(threadMXBean.getCurrentThreadAllocatedBytes() - before);
+                latch.countDown();
+            }
+        });
+
+        long start = System.nanoTime();
+        consumer.start();
+        for (int p = 0; p < PRODUCER_COUNT; p++) {
+            long couponId = p;
+            new Thread(() -> {
+                long before = threadMXBean.getCurrentThreadAllocatedBytes();
+                for (int i = 0; i < REQUESTS_PER_PRODUCER; i++) {
+                    transport.publish(couponId, System.nanoTime(), null);
+                }
+                allocatedBytes.addAndGet(threadMXBean.getCurrentThreadAllocatedBytes() - before);
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(transport.size()).isZero();
+        Arrays.sort(latencies);
+        return new Result(elapsed, allocatedBytes.get(), latencies);
+    }
+
+    private void report(String name, Result result) {
+        log.info("{} : throughput={} req/s, allocation={} B/req, p50={} μs, p99={} μs, max={} μs",
+                name,
+                TOTAL_REQUESTS * 1_000_000_000L / result.elapsedNanos(),
+                result.allocatedBytes() / TOTAL_REQUESTS,
+                result.percentileMicros(0.50),
+                result.percentileMicros(0.99),
+                result.percentileMicros(1.0)
+        );
+    }
+
+    private record Result(long elapsedNanos, long allocatedBytes, long[] sortedLatencies) {
+        long percentileMicros(double percentile) {
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return TimeUnit.NANOSECONDS.toMicros(sortedLatencies[Math.max(0, index)]);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Arrays;
 import java.util.List;
@@ -20,13 +21,17 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @Slf4j
-@SpringBootTest
+@SpringBootTest(properties = {
+        "coupon.lock.watchdog-timeout-ms=1000" // 10초 작업 동안 워치독이 여러 번 연장하도록 TTL을 줄인다.
+})
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 public class DistributedLockTimeOverTest {
     @Autowired
     private CouponRepository couponRepository;
     @Autowired
     private CouponTooLongTimeDecreaseService sut;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Test
     @DisplayName("Happy Path: 두 작업 모두 락 방출 시간 이내에 처리되는 경우 재고 없음")
@@ -97,6 +102,49 @@ public class DistributedLockTimeOverTest {
         assertEquals(1, result.getAvailableStock(), "하나의 작업만이 성공해야 합니다.");
     }
 
+    @Test
+    @DisplayName("워치독 임대: 두 작업 모두 락 유지 시간보다 오래 걸려도 락이 연장되어 재고 없음")
+    void should_have_zero_stock_when_watchdog_renews_lease() throws InterruptedException {
+        // given
+        var couponCount = 2;
+        var coupon = couponRepository.save(new Coupon("COUPON_001", couponCount));
+
+        // when
+        executeTasksConcurrently(
+                Arrays.asList(
+                        couponId -> sut.runWithFencing(couponId),
+                        couponId -> sut.runWithFencing(couponId)
+                ),
+                5000, // 5초 간격으로 태스크 실행
+                coupon.getId()
+        );
+
+        // then
+        var result = couponRepository.findById(coupon.getId()).get();
+
+        assertThat(result.getAvailableStock()).isZero();
+    }
+
+    @Test
+    @DisplayName("펜싱 토큰: 이후 보유자가 기록한 토큰보다 작은 토큰의 쓰기는 거절")
+    void should_reject_write_with_stale_fencing_token() {
+        // given
+        var couponCount = 2;
+        var coupon = couponRepository.save(new Coupon("COUPON_001", couponCount));
+
+        // when
+        int current = transactionTemplate.execute(status -> couponRepository.decreaseStockWithFencingToken(coupon.getId(), 2L));
+        int stale = transactionTemplate.execute(status -> couponRepository.decreaseStockWithFencingToken(coupon.getId(), 1L));
+
+        // then
+        var result = couponRepository.findById(coupon.getId()).get();
+
+        assertEquals(1, current);
+        assertEquals(0, stale, "만료된 토큰의 쓰기는 반영되지 않아야 합니다.");
+        assertEquals(1, result.getAvailableStock());
+        assertEquals(2L, result.getFencingToken());
+    }
+
     private void executeTasksConcurrently(List<Consumer<Long>> tasks, long delayMillis, Long couponId)
             throws InterruptedException {
         int threadCount = tasks.size();
@@ -0,0 +1,70 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.domain.Coupon;
+import com.test.concurrent.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 파티션이 여러 개인 {@link MessageQueueCouponDecreaseService} 테스트
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "coupon.queue.partitions=2"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class MessageQueueCouponDecreaseTest {
+    private static final int REQUEST_COUNT = 50;
+
+    @Autowired
+    private MessageQueueCouponDecreaseService messageQueueCouponDecreaseService;
+    @Autowired
+    private CouponRepository couponRepository;
+
+    @Test
+    @DisplayName("Partition: 같은 쿠폰의 요청은 항상 couponId로 정해진 파티션에서 처리되는 테스트")
+    void 쿠폰별_파티션_라우팅_테스트() throws InterruptedException {
+        Coupon first = couponRepository.save(new Coupon("COUPON_001", REQUEST_COUNT));
+        int firstPartition = messageQueueCouponDecreaseService.getPartitionIndex(first.getId());
+
+        // 두 쿠폰이 서로 다른 파티션에 놓이도록, 서비스의 라우팅 기준으로 두 번째 쿠폰을 고른다.
+        Coupon second = couponRepository.save(new Coupon("COUPON_002", REQUEST_COUNT));
+        for (int attempt = 0; attempt < 10 && messageQueueCouponDecreaseService.getPartitionIndex(second.getId()) == firstPartition; attempt++) {
+            second = couponRepository.save(new Coupon("COUPON_002", REQUEST_COUNT));
+        }
+        int secondPartition = messageQueueCouponDecreaseService.getPartitionIndex(second.getId());
+        assertThat(secondPartition).isNotEqualTo(firstPartition);
+
+        long[] processedBefore = messageQueueCouponDecreaseService.getPartitionProcessedCounts();
+
+        List<CompletableFuture<IssueResult>> results = new ArrayList<>();
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            results.add(messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(first.getId()));
+        }
+        for (int i = 0; i < REQUEST_COUNT * 2; i++) {
+            results.add(messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(second.getId()));
+        }
+        messageQueueCouponDecreaseService.waitForCompletion();
+
+        long[] processedAfter = messageQueueCouponDecreaseService.getPartitionProcessedCounts();
+        assertThat(processedAfter[firstPartition] - processedBefore[firstPartition]).isEqualTo(REQUEST_COUNT);
+        assertThat(processedAfter[secondPartition] - processedBefore[secondPartition]).isEqualTo(REQUEST_COUNT * 2);
+        assertThat(results.stream().filter(result -> result.join() == IssueResult.ISSUED).count()).isEqualTo(REQUEST_COUNT * 2);
+
+        for (Long couponId : List.of(first.getId(), second.getId())) {
+            Coupon persistedCoupon = couponRepository.findById(couponId).orElseThrow(IllegalArgumentException::new);
+            assertThat(persistedCoupon.getAvailableStock()).isZero();
+            log.debug("잔여 쿠폰 수량: " + persistedCoupon.getAvailableStock());
+        }
+    }
+}
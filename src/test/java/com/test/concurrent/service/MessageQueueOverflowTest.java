@@ -0,0 +1,169 @@
+package com.test.concurrent.service;
+
+import com.test.concurrent.domain.Coupon;
+import com.test.concurrent.repository.CouponRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 큐가 가득 찼을 때의 {@link QueueOverflowPolicy}별 동작과 종료 시 요청 완료 테스트
+ * <p>
+ * 테스트 스레드가 쿠폰 행을 비관적 락으로 잡아 워커를 첫 요청의 UPDATE에서 멈춰 두고, 그 사이에 큐를 채운다.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "coupon.queue.partitions=1",
+        "coupon.queue.batch-size=1",
+        "coupon.queue.capacity=" + MessageQueueOverflowTest.CAPACITY,
+        "coupon.queue.offer-timeout-ms=" + MessageQueueOverflowTest.OFFER_TIMEOUT_MILLIS,
+        "coupon.queue.transport=LINKED_QUEUE"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class MessageQueueOverflowTest {
+    static final int CAPACITY = 4;
+    static final long OFFER_TIMEOUT_MILLIS = 200L;
+
+    @Autowired
+    private MessageQueueCouponDecreaseService messageQueueCouponDecreaseService;
+    @Autowired
+    private CouponRepository couponRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final ExecutorService lockHolder = Executors.newSingleThreadExecutor();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    @Timeout(30)
+    @DisplayName("REJECT: 큐가 가득 차면 대기하지 않고 REJECTED로 완료되는 테스트")
+    void 큐_초과_즉시_거절_테스트() throws Exception {
+        ReflectionTestUtils.setField(messageQueueCouponDecreaseService, "overflowPolicy", QueueOverflowPolicy.REJECT);
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", 100L));
+        List<CompletableFuture<IssueResult>> queued = blockWorkerAndFillQueue(coupon.getId());
+
+        CompletableFuture<IssueResult> overflow = messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(coupon.getId());
+        assertThat(overflow).isCompletedWithValue(IssueResult.REJECTED);
+
+        releaseWorker();
+        assertThat(queued).allMatch(result -> result.join() == IssueResult.ISSUED);
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(100L - queued.size());
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("BLOCK: 큐가 가득 차면 offer-timeout-ms만큼 기다린 뒤 REJECTED로 완료되는 테스트")
+    void 큐_초과_대기_후_거절_테스트() throws Exception {
+        ReflectionTestUtils.setField(messageQueueCouponDecreaseService, "overflowPolicy", QueueOverflowPolicy.BLOCK);
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", 100L));
+        List<CompletableFuture<IssueResult>> queued = blockWorkerAndFillQueue(coupon.getId());
+
+        long start = System.nanoTime();
+        CompletableFuture<IssueResult> overflow = messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(coupon.getId());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(overflow).isCompletedWithValue(IssueResult.REJECTED);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(OFFER_TIMEOUT_MILLIS);
+
+        releaseWorker();
+        assertThat(queued).allMatch(result -> result.join() == IssueResult.ISSUED);
+    }
+
+    @Test
+    @Timeout(30)
+    @DisplayName("SHED_OLDEST: 큐가 가득 차면 가장 오래된 요청이 SHED로 완료되고 새 요청이 적재되는 테스트")
+    void 큐_초과_오래된_요청_버림_테스트() throws Exception {
+        ReflectionTestUtils.setField(messageQueueCouponDecreaseService, "overflowPolicy", QueueOverflowPolicy.SHED_OLDEST);
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", 100L));
+        List<CompletableFuture<IssueResult>> queued = blockWorkerAndFillQueue(coupon.getId());
+        long shedBefore = messageQueueCouponDecreaseService.getShedCount();
+
+        CompletableFuture<IssueResult> newest = messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(coupon.getId());
+        CompletableFuture<IssueResult> oldestQueued = queued.get(1); // queued.get(0)은 워커가 처리 중인 요청
+        assertThat(oldestQueued).isCompletedWithValue(IssueResult.SHED);
+        assertThat(newest).isNotDone();
+        assertThat(messageQueueCouponDecreaseService.getShedCount() - shedBefore).isEqualTo(1L);
+
+        releaseWorker();
+        assertThat(newest.join()).isEqualTo(IssueResult.ISSUED);
+        assertThat(queued.subList(2, queued.size())).allMatch(result -> result.join() == IssueResult.ISSUED);
+        assertThat(couponRepository.findById(coupon.getId()).orElseThrow().getAvailableStock()).isEqualTo(100L - queued.size());
+    }
+
+    @Test
+    @Timeout(30)
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    @DisplayName("Close: 종료 시 큐에 남은 요청이 모두 완료되어 waitForCompletion이 반환되는 테스트")
+    void 종료_시_남은_요청_완료_테스트() throws Exception {
+        ReflectionTestUtils.setField(messageQueueCouponDecreaseService, "overflowPolicy", QueueOverflowPolicy.REJECT);
+        Coupon coupon = couponRepository.save(new Coupon("COUPON_001", 100L));
+        List<CompletableFuture<IssueResult>> queued = blockWorkerAndFillQueue(coupon.getId());
+
+        ExecutorService closer = Executors.newSingleThreadExecutor();
+        Future<?> closing = closer.submit(messageQueueCouponDecreaseService::close);
+        TimeUnit.MILLISECONDS.sleep(OFFER_TIMEOUT_MILLIS);
+        releaseWorker();
+        closing.get(10, TimeUnit.SECONDS);
+
+        messageQueueCouponDecreaseService.waitForCompletion();
+
+        // 처리 중이던 요청은 워커가 끝까지 처리해 완료하고, 큐에 남아 있던 요청은 실패로 완료된다.
+        assertThat(queued.get(0)).isDone();
+        assertThat(queued.subList(1, queued.size())).allMatch(CompletableFuture::isCompletedExceptionally);
+        assertThat(messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(coupon.getId())).isCompletedWithValue(IssueResult.REJECTED);
+        closer.shutdown();
+    }
+
+    /**
+     * 쿠폰 행을 잠가 워커를 첫 요청에서 멈추고, 큐를 가득 채운다.
+     *
+     * @return : 워커가 처리 중인 요청 1개와 큐에 적재된 요청 CAPACITY개
+     */
+    private List<CompletableFuture<IssueResult>> blockWorkerAndFillQueue(Long couponId) throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        lockHolder.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            couponRepository.findByIdWithPLock(couponId);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await();
+
+        List<CompletableFuture<IssueResult>> queued = new ArrayList<>();
+        queued.add(messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(couponId));
+        while (messageQueueCouponDecreaseService.getPartitionQueueDepths()[0] > 0) {
+            TimeUnit.MILLISECONDS.sleep(10); // 워커가 첫 요청을 꺼내 UPDATE에서 대기할 때까지
+        }
+        for (int i = 0; i < CAPACITY; i++) {
+            queued.add(messageQueueCouponDecreaseService.decreaseStockWithMessagingQueue(couponId));
+        }
+        assertThat(queued).noneMatch(CompletableFuture::isDone);
+        return queued;
+    }
+
+    private void releaseWorker() throws InterruptedException {
+        release.countDown();
+        lockHolder.shutdown();
+        lockHolder.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}